@@ -0,0 +1,72 @@
+package com.mcmoddev.launcher.version;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VersionBenchmark {
+    // The comparison Version.compareTo did before versions were parsed once
+    private static final Comparator<String> LEGACY_ORDER = (a, b) -> {
+        final String[] thisParts = a.split("\\.");
+        final String[] otherParts = b.split("\\.");
+        final int length = Math.max(thisParts.length, otherParts.length);
+        for (int i = 0; i < length; i++) {
+            final int thisPart = i < thisParts.length ? Integer.parseInt(thisParts[i]) : 0;
+            final int thatPart = i < otherParts.length ? Integer.parseInt(otherParts[i]) : 0;
+            if (thisPart != thatPart) {
+                return thisPart < thatPart ? -1 : 1;
+            }
+        }
+        return 0;
+    };
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private String[] strings;
+    private Version[] versions;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        this.strings = new String[this.size];
+        this.versions = new Version[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.strings[i] = random.nextInt(3) + "." + random.nextInt(20) + "." + random.nextInt(50);
+            this.versions[i] = new Version(this.strings[i]);
+        }
+    }
+
+    @Benchmark
+    public String[] legacySort() {
+        final String[] sorted = this.strings.clone();
+        Arrays.sort(sorted, VersionBenchmark.LEGACY_ORDER);
+        return sorted;
+    }
+
+    @Benchmark
+    public Version[] sort() {
+        final Version[] sorted = this.versions.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public Version[] parseAndSort() {
+        final Version[] sorted = new Version[this.strings.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = new Version(this.strings[i]);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -2,25 +2,44 @@ package com.mcmoddev.launcher;
 
 import com.google.common.base.Charsets;
 import com.google.common.hash.Hashing;
-import com.google.common.io.Files;
+import com.google.common.io.MoreFiles;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import com.mcmoddev.launcher.update.JarPatcher;
+import com.mcmoddev.launcher.util.Transfer;
 import com.mcmoddev.launcher.version.Version;
 import com.mcmoddev.launcher.version.VersionAdapter;
 
 import org.apache.commons.io.FileUtils;
 
 import java.io.*;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class Bootstrap {
     public static final String URL = "https://raw.githubusercontent.com/MinecraftModDevelopment/MMD-Launcher/gh-pages/update.json";
+    public static final int CONNECT_TIMEOUT = 3000;
+    public static final int READ_TIMEOUT = 5000;
+    public static final int MAX_BACKUPS = 3;
 
     public File dataDir;
     public JsonParser jsonParser;
@@ -28,21 +47,38 @@ public class Bootstrap {
 
     public Version currentVersion;
     public String currentSHA256;
+    public Version skipVersion;
+    public Version pendingVersion;
+    public String pendingSHA256;
+    public boolean deferUpdates;
 
     public File bootstrapFile;
     public File launcherFile;
+    public File pendingFile;
+    public File backupsDir;
+    public File updateFile;
+    public File updateMetaFile;
 
     public Version newerVersion;
     public String newerURL;
+    public JsonObject newerEntry;
 
     public ProgressBar progressbar;
     public String[] args;
 
+    private CompletableFuture<String> hashTask;
+
     public static void main(String[] args) {
         final List<String> argumentList = Arrays.asList(args);
         final Bootstrap bootstrap = new Bootstrap(argumentList.contains("--portable") || argumentList.contains("-p"));
         bootstrap.args = args;
+        bootstrap.deferUpdates |= argumentList.contains("--defer-update");
 
+        if (argumentList.contains("--rollback")) {
+            bootstrap.rollback();
+            bootstrap.launch();
+            return;
+        }
         try {
             bootstrap.start();
         } catch (IOException e) {
@@ -58,23 +94,45 @@ public class Bootstrap {
         final File bootstrapDir = new File(this.dataDir, "bootstrap");
         this.bootstrapFile = new File(bootstrapDir, "bootstrap.json");
         this.launcherFile = new File(bootstrapDir, "launcher.jar");
+        this.pendingFile = new File(bootstrapDir, "launcher.jar.pending");
+        this.backupsDir = new File(bootstrapDir, "backups");
+        this.updateFile = new File(bootstrapDir, "update.json");
+        this.updateMetaFile = new File(bootstrapDir, "update.meta.json");
 
         if (bootstrapDir.exists()) {
             if (this.bootstrapFile.exists()) {
-                try {
-                    final JsonObject object = this.jsonParser.parse(new FileReader(this.bootstrapFile)).getAsJsonObject();
-                    this.currentVersion = new Version(object.get("version").getAsString());
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (this.launcherFile.exists()) {
-                try {
-                    this.currentSHA256 = Files.asByteSource(this.launcherFile).hash(Hashing.sha256()).toString();
+                try (Reader reader = new FileReader(this.bootstrapFile)) {
+                    final JsonObject object = this.jsonParser.parse(reader).getAsJsonObject();
+                    this.currentVersion = object.has("version") ? new Version(object.get("version").getAsString()) : null;
+                    this.skipVersion = object.has("skipVersion") ? new Version(object.get("skipVersion").getAsString()) : null;
+                    this.pendingVersion = object.has("pendingVersion") ? new Version(object.get("pendingVersion").getAsString()) : null;
+                    this.pendingSHA256 = object.has("pendingSHA256") ? object.get("pendingSHA256").getAsString() : null;
+                    this.deferUpdates = object.has("deferUpdates") && object.get("deferUpdates").getAsBoolean();
+                    // Loaded before anything below can call saveState, which would otherwise drop the cached hash
+                    if (object.has("sha256") && object.has("size") && object.has("lastModified") && this.launcherFile.exists()
+                            && object.get("size").getAsLong() == this.launcherFile.length() && object.get("lastModified").getAsLong() == this.launcherFile.lastModified()) {
+                        this.currentSHA256 = object.get("sha256").getAsString();
+                    }
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             }
+            if (this.pendingVersion != null) {
+                this.installPending();
+            }
+            if (!this.launcherFile.exists()) {
+                this.restoreBackup();
+            }
+            if (this.launcherFile.exists() && this.currentSHA256 == null) {
+                this.hashTask = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return this.hash(this.launcherFile);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        return null;
+                    }
+                });
+            }
         } else {
             if (!bootstrapDir.mkdirs()) {
                 throw new RuntimeException("Unable to create data directory");
@@ -85,53 +143,398 @@ public class Bootstrap {
     }
 
     public void start() throws IOException {
-        final Map<Version, JsonObject> map = this.gson.fromJson(new InputStreamReader(new URL(Bootstrap.URL).openStream()), new TypeToken<Map<Version, JsonObject>>() {}.getType());
+        final boolean deferred = this.deferUpdates && this.launcherFile.exists();
+        if (deferred) {
+            this.launch();
+        }
+        final Map<Version, JsonObject> map;
+        try {
+            map = this.fetchUpdates();
+        } catch (IOException | JsonParseException e) {
+            if (deferred) {
+                System.out.println("Update check failed: " + e);
+                return;
+            } else if (this.launcherFile.exists()) {
+                System.out.println("Update check failed (" + e + "), launching the installed version");
+                this.launch();
+                return;
+            }
+            throw e;
+        }
+        if (this.hashTask != null) {
+            this.currentSHA256 = this.hashTask.join();
+            this.hashTask = null;
+            if (this.currentSHA256 != null) {
+                this.saveState();
+            }
+        }
         for (Map.Entry<Version, JsonObject> entry : map.entrySet()) {
+            if (entry.getKey().equals(this.skipVersion)) {
+                continue;
+            }
             int compare = entry.getKey().compareTo(this.currentVersion);
             if (compare > 0) {
                 if (this.newerVersion != null) {
                     if (entry.getKey().compareTo(this.newerVersion) > 0) {
                         this.newerVersion = entry.getKey();
                         this.newerURL = entry.getValue().get("url").getAsString();
+                        this.newerEntry = entry.getValue();
                     }
                 } else {
                     this.newerVersion = entry.getKey();
                     this.newerURL = entry.getValue().get("url").getAsString();
+                    this.newerEntry = entry.getValue();
                 }
             } else if (compare == 0) {
                 final String actualSHA256 = entry.getValue().get("sha256").getAsString();
-                if (!this.currentSHA256.equals(actualSHA256)) {
+                if (!actualSHA256.equals(this.currentSHA256)) {
                     this.newerVersion = entry.getKey();
                     this.newerURL = entry.getValue().get("url").getAsString();
+                    this.newerEntry = entry.getValue();
                 }
             }
         }
 
         if (this.newerVersion != null) {
             System.out.println("Found newer version: " + this.newerVersion + " (currently " + this.currentVersion + ")");
-            if (this.launcherFile.exists()) {
-                System.out.println("Removing old jar");
-                if (!this.launcherFile.delete()) {
-                    throw new RuntimeException("Failed to remove old jar");
+            if (deferred) {
+                this.stageUpdate();
+                return;
+            }
+            final JsonObject patch = this.findPatch();
+            if (patch != null) {
+                this.updatePatched(patch);
+            } else {
+                this.updateFull();
+            }
+        } else if (!deferred) {
+            this.launch();
+        }
+    }
+
+    public Map<Version, JsonObject> fetchUpdates() throws IOException {
+        String etag = null;
+        String lastModified = null;
+        if (this.updateFile.exists() && this.updateMetaFile.exists()) {
+            try (Reader reader = new FileReader(this.updateMetaFile)) {
+                final JsonObject object = this.jsonParser.parse(reader).getAsJsonObject();
+                etag = object.has("etag") ? object.get("etag").getAsString() : null;
+                lastModified = object.has("lastModified") ? object.get("lastModified").getAsString() : null;
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        final HttpURLConnection connection = (HttpURLConnection) new URL(Bootstrap.URL).openConnection();
+        connection.setConnectTimeout(Bootstrap.CONNECT_TIMEOUT);
+        connection.setReadTimeout(Bootstrap.READ_TIMEOUT);
+        if (etag != null) {
+            connection.setRequestProperty("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            connection.setRequestProperty("If-Modified-Since", lastModified);
+        }
+        final int responseCode = connection.getResponseCode();
+        if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && this.updateFile.exists()) {
+            connection.disconnect();
+        } else if (responseCode == HttpURLConnection.HTTP_OK) {
+            final File tempFile = new File(this.updateFile.getParentFile(), "update.json.tmp");
+            try (InputStream stream = connection.getInputStream()) {
+                Files.copy(stream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            this.replace(tempFile, this.updateFile);
+            final JsonObject object = new JsonObject();
+            if (connection.getHeaderField("ETag") != null) {
+                object.addProperty("etag", connection.getHeaderField("ETag"));
+            }
+            if (connection.getHeaderField("Last-Modified") != null) {
+                object.addProperty("lastModified", connection.getHeaderField("Last-Modified"));
+            }
+            FileUtils.writeStringToFile(this.updateMetaFile, this.gson.toJson(object), Charsets.UTF_8);
+        } else {
+            connection.disconnect();
+            throw new IOException("Server returned HTTP " + responseCode + " for " + Bootstrap.URL);
+        }
+
+        try (Reader reader = new FileReader(this.updateFile)) {
+            return this.gson.fromJson(reader, new TypeToken<Map<Version, JsonObject>>() {}.getType());
+        }
+    }
+
+    public void stageUpdate() {
+        final String sha256 = this.newerEntry.has("sha256") ? this.newerEntry.get("sha256").getAsString() : null;
+        if (sha256 == null) {
+            System.out.println("Update " + this.newerVersion + " has no checksum and cannot be staged");
+            return;
+        }
+        if (this.newerVersion.equals(this.pendingVersion) && sha256.equalsIgnoreCase(this.pendingSHA256) && this.pendingFile.exists()) {
+            return;
+        }
+        final File stagingFile = new File(this.pendingFile.getParentFile(), "launcher.jar.staging");
+        try {
+            final JsonObject patch = this.findPatch();
+            boolean patched = false;
+            if (patch != null) {
+                final File patchFile = new File(this.launcherFile.getParentFile(), "launcher.patch");
+                try {
+                    this.download(patch.get("url").getAsString(), patchFile);
+                    JarPatcher.apply(this.launcherFile, patchFile, stagingFile, sha256);
+                    patched = true;
+                } catch (IOException e) {
+                    System.out.println("Failed to apply patch: " + e);
+                } finally {
+                    patchFile.delete();
+                }
+            }
+            if (!patched) {
+                this.download(this.newerURL, stagingFile);
+                final String obtained = this.hash(stagingFile);
+                if (!sha256.equalsIgnoreCase(obtained)) {
+                    throw new IOException("Downloaded jar has checksum " + obtained + ", expected " + sha256);
                 }
             }
-            this.progressbar.display(this.newerURL, this.launcherFile, () -> {
-                final JsonObject object = new JsonObject();
-                object.addProperty("version", Bootstrap.this.newerVersion.get());
-                final String json = Bootstrap.this.gson.toJson(object);
+            this.replace(stagingFile, this.pendingFile);
+            this.pendingVersion = this.newerVersion;
+            this.pendingSHA256 = sha256;
+            this.saveState();
+            System.out.println("Update " + this.newerVersion + " will be installed on the next start");
+        } catch (IOException e) {
+            System.out.println("Failed to stage update: " + e);
+            stagingFile.delete();
+        }
+    }
+
+    public void installPending() {
+        try {
+            if (!this.pendingFile.exists() || !this.pendingSHA256.equalsIgnoreCase(this.hash(this.pendingFile))) {
+                throw new IOException("Pending update is missing or corrupt");
+            }
+            this.install(this.pendingFile, this.pendingVersion, this.pendingSHA256);
+        } catch (IOException e) {
+            System.out.println("Failed to install pending update: " + e);
+            this.pendingFile.delete();
+            this.pendingVersion = null;
+            this.pendingSHA256 = null;
+            this.saveState();
+        }
+    }
+
+    public void download(String url, File target) throws IOException {
+        final URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(Bootstrap.CONNECT_TIMEOUT);
+        connection.setReadTimeout(Bootstrap.READ_TIMEOUT);
+        try (ReadableByteChannel source = Channels.newChannel(connection.getInputStream()); FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Transfer.copy(source, channel, null, null);
+        }
+    }
+
+    public JsonObject findPatch() {
+        if (this.currentSHA256 == null || !this.newerEntry.has("sha256") || !this.newerEntry.has("patches")) {
+            return null;
+        }
+        for (JsonElement element : this.newerEntry.getAsJsonArray("patches")) {
+            final JsonObject patch = element.getAsJsonObject();
+            if (patch.get("from").getAsString().equalsIgnoreCase(this.currentSHA256)) {
+                return patch;
+            }
+        }
+        return null;
+    }
+
+    public void updatePatched(JsonObject patch) {
+        System.out.println("Downloading patch from " + this.currentSHA256);
+        final File patchFile = new File(this.launcherFile.getParentFile(), "launcher.patch");
+        this.progressbar.display(patch.get("url").getAsString(), patchFile, new ProgressBar.IProgressbarCallback() {
+            @Override
+            public void call() {
+                final File patchedFile = new File(Bootstrap.this.launcherFile.getParentFile(), "launcher.jar.patched");
                 try {
-                    FileUtils.writeStringToFile(Bootstrap.this.bootstrapFile, json, Charsets.UTF_8);
+                    JarPatcher.apply(Bootstrap.this.launcherFile, patchFile, patchedFile, Bootstrap.this.newerEntry.get("sha256").getAsString());
+                    Bootstrap.this.install(patchedFile, Bootstrap.this.newerVersion, Bootstrap.this.newerEntry.get("sha256").getAsString());
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    System.out.println("Failed to apply patch: " + e);
+                    patchedFile.delete();
+                    Bootstrap.this.updateFull();
+                    return;
+                } finally {
+                    patchFile.delete();
                 }
-                System.out.println("Update complete!");
                 Bootstrap.this.launch();
-            });
-        } else {
-            this.launch();
+            }
+
+            @Override
+            public void fail(IOException e) {
+                System.out.println("Failed to download patch: " + e);
+                patchFile.delete();
+                Bootstrap.this.updateFull();
+            }
+        });
+    }
+
+    public void updateFull() {
+        final File downloadFile = new File(this.launcherFile.getParentFile(), "launcher.jar.download");
+        this.progressbar.display(this.newerURL, downloadFile, new ProgressBar.IProgressbarCallback() {
+            @Override
+            public void call() {
+                try {
+                    if (Bootstrap.this.newerEntry.has("sha256")) {
+                        final String expected = Bootstrap.this.newerEntry.get("sha256").getAsString();
+                        final String obtained = Bootstrap.this.hash(downloadFile);
+                        if (!expected.equalsIgnoreCase(obtained)) {
+                            throw new IOException("Downloaded jar has checksum " + obtained + ", expected " + expected);
+                        }
+                    }
+                    Bootstrap.this.install(downloadFile, Bootstrap.this.newerVersion, Bootstrap.this.newerEntry.has("sha256") ? Bootstrap.this.newerEntry.get("sha256").getAsString() : null);
+                } catch (IOException e) {
+                    this.fail(e);
+                    return;
+                }
+                Bootstrap.this.launch();
+            }
+
+            @Override
+            public void fail(IOException e) {
+                System.out.println("Failed to update: " + e);
+                downloadFile.delete();
+                if (Bootstrap.this.launcherFile.exists()) {
+                    Bootstrap.this.launch();
+                }
+            }
+        });
+    }
+
+    public void install(File stagedFile, Version version, String sha256) throws IOException {
+        if (this.launcherFile.exists() && this.currentVersion != null) {
+            if (!this.backupsDir.exists() && !this.backupsDir.mkdirs()) {
+                throw new IOException("Failed to create " + this.backupsDir);
+            }
+            final File backupFile = new File(this.backupsDir, "launcher-" + this.currentVersion + ".jar");
+            Files.deleteIfExists(backupFile.toPath());
+            try {
+                Files.createLink(backupFile.toPath(), this.launcherFile.toPath());
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(this.launcherFile.toPath(), backupFile.toPath());
+            }
+            backupFile.setLastModified(System.currentTimeMillis());
+            this.pruneBackups();
+        }
+        this.replace(stagedFile, this.launcherFile);
+        this.currentVersion = version;
+        this.currentSHA256 = sha256 != null ? sha256.toLowerCase(Locale.ENGLISH) : null;
+        this.skipVersion = null;
+        this.pendingVersion = null;
+        this.pendingSHA256 = null;
+        this.saveState();
+        System.out.println("Update complete!");
+    }
+
+    public boolean rollback() {
+        final File[] backups = this.getBackups();
+        if (backups.length == 0) {
+            System.out.println("No previous version to roll back to");
+            return false;
+        }
+        final File backupFile = backups[backups.length - 1];
+        try {
+            this.skipVersion = this.currentVersion;
+            this.replace(backupFile, this.launcherFile);
+            this.currentVersion = this.getBackupVersion(backupFile);
+            this.currentSHA256 = null;
+            this.saveState();
+            System.out.println("Rolled back to " + this.currentVersion + ", skipping " + this.skipVersion);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public void restoreBackup() {
+        final File[] backups = this.getBackups();
+        if (backups.length > 0) {
+            final File backupFile = backups[backups.length - 1];
+            try {
+                final File tempFile = new File(this.launcherFile.getParentFile(), "launcher.jar.tmp");
+                Files.copy(backupFile.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                this.replace(tempFile, this.launcherFile);
+                this.currentVersion = this.getBackupVersion(backupFile);
+                this.currentSHA256 = null;
+                this.saveState();
+                System.out.println("Restored launcher " + this.currentVersion + " from backup");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public File[] getBackups() {
+        final File[] backups = this.backupsDir.listFiles((dir, name) -> name.startsWith("launcher-") && name.endsWith(".jar"));
+        if (backups == null) {
+            return new File[0];
+        }
+        Arrays.sort(backups, Comparator.comparingLong(File::lastModified));
+        return backups;
+    }
+
+    public Version getBackupVersion(File backupFile) {
+        final String name = backupFile.getName();
+        try {
+            return new Version(name.substring("launcher-".length(), name.length() - ".jar".length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public void pruneBackups() {
+        final File[] backups = this.getBackups();
+        for (int i = 0; i < backups.length - Bootstrap.MAX_BACKUPS; i++) {
+            if (!backups[i].delete()) {
+                System.out.println("Failed to remove old backup " + backups[i].getName());
+            }
         }
     }
 
+    public void replace(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public void saveState() {
+        final JsonObject object = new JsonObject();
+        if (this.currentVersion != null) {
+            object.addProperty("version", this.currentVersion.get());
+        }
+        if (this.skipVersion != null) {
+            object.addProperty("skipVersion", this.skipVersion.get());
+        }
+        if (this.pendingVersion != null && this.pendingSHA256 != null) {
+            object.addProperty("pendingVersion", this.pendingVersion.get());
+            object.addProperty("pendingSHA256", this.pendingSHA256);
+        }
+        if (this.deferUpdates) {
+            object.addProperty("deferUpdates", true);
+        }
+        if (this.currentSHA256 != null && this.launcherFile.exists()) {
+            object.addProperty("sha256", this.currentSHA256);
+            object.addProperty("size", this.launcherFile.length());
+            object.addProperty("lastModified", this.launcherFile.lastModified());
+        }
+        final File tempFile = new File(this.bootstrapFile.getParentFile(), "bootstrap.json.tmp");
+        try {
+            FileUtils.writeStringToFile(tempFile, this.gson.toJson(object), Charsets.UTF_8);
+            this.replace(tempFile, this.bootstrapFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public String hash(File file) throws IOException {
+        return MoreFiles.asByteSource(file.toPath()).hash(Hashing.sha256()).toString();
+    }
+
     public void launch() {
         String[] arguments = {"java", "-jar", this.launcherFile.getAbsolutePath()};
         arguments = this.concat(arguments, this.args);
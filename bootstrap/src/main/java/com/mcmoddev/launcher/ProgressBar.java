@@ -1,10 +1,18 @@
 package com.mcmoddev.launcher;
 
+import com.mcmoddev.launcher.util.ProgressMonitor;
+import com.mcmoddev.launcher.util.Transfer;
+
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ProgressBar {
     public void display(final String string, final File target, final IProgressbarCallback callback) {
@@ -33,31 +41,26 @@ public class ProgressBar {
                 try {
                     URL url = new URL(string);
                     HttpURLConnection connection = (HttpURLConnection) (url.openConnection());
-                    long contentLength = connection.getContentLength();
-                    InputStream inputStream = new BufferedInputStream(connection.getInputStream());
-                    OutputStream outputStream = new FileOutputStream(target);
-                    OutputStream bufferedOutputStream = new BufferedOutputStream(outputStream, 1024);
-                    byte[] data = new byte[1024];
-                    long downloaded = 0;
-                    int i;
-                    while ((i = inputStream.read(data, 0, 1024)) >= 0) {
-                        downloaded += i;
-
-                        final int currentProgress = (int) ((((double) downloaded) / ((double) contentLength)) * 100.0D);
-                        SwingUtilities.invokeLater(() -> {
-                            progressBar.setValue(currentProgress);
-                            progressBar.setString(currentProgress + "%");
-                        });
-
-                        bufferedOutputStream.write(data, 0, i);
+                    connection.setConnectTimeout(Bootstrap.CONNECT_TIMEOUT);
+                    connection.setReadTimeout(Bootstrap.READ_TIMEOUT);
+                    long contentLength = connection.getContentLengthLong();
+                    AtomicLong downloaded = new AtomicLong();
+                    ProgressMonitor progressMonitor = new ProgressMonitor(() -> contentLength > 0 ? (int) (downloaded.get() * 100 / contentLength) : 0, currentProgress -> SwingUtilities.invokeLater(() -> {
+                        progressBar.setValue(currentProgress);
+                        progressBar.setString(currentProgress + "%");
+                    }), true).start();
+                    try (ReadableByteChannel source = Channels.newChannel(connection.getInputStream()); FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        Transfer.copy(source, channel, null, downloaded::set);
+                    } finally {
+                        progressMonitor.stop();
                     }
-                    bufferedOutputStream.close();
-                    inputStream.close();
                     frame.setVisible(false);
                     frame.dispose();
                     callback.call();
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    frame.setVisible(false);
+                    frame.dispose();
+                    callback.fail(e);
                 }
             }
         }.start();
@@ -65,5 +68,9 @@ public class ProgressBar {
 
     public interface IProgressbarCallback {
         void call();
+
+        default void fail(IOException e) {
+            e.printStackTrace();
+        }
     }
 }
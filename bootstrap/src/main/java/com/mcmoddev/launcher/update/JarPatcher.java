@@ -0,0 +1,180 @@
+package com.mcmoddev.launcher.update;
+
+import com.mcmoddev.launcher.util.Transfer;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class JarPatcher {
+    public static final int MAGIC = 0x4D4D4450;
+    public static final int OP_END = 0;
+    public static final int OP_COPY = 1;
+    public static final int OP_ADD = 2;
+    public static final int BLOCK_SIZE = 64;
+
+    private static final long PRIME = 1_000_003L;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println("Usage: JarPatcher <old jar> <new jar> <patch file>");
+            return;
+        }
+        final File base = new File(args[0]);
+        final File target = new File(args[1]);
+        final File patch = new File(args[2]);
+        JarPatcher.create(base, target, patch);
+        System.out.println("Wrote " + patch + " (" + patch.length() + " bytes, full jar is " + target.length() + " bytes)");
+        System.out.println("update.json patch entry: {\"from\": \"" + JarPatcher.sha256(base) + "\", \"url\": \"<url of " + patch.getName() + ">\"}");
+        System.out.println("update.json sha256: " + JarPatcher.sha256(target));
+    }
+
+    public static void create(File base, File target, File patch) throws IOException {
+        final byte[] source = Files.readAllBytes(base.toPath());
+        final byte[] data = Files.readAllBytes(target.toPath());
+        final Map<Long, Integer> blocks = new HashMap<>();
+        for (int i = 0; i + JarPatcher.BLOCK_SIZE <= source.length; i += JarPatcher.BLOCK_SIZE) {
+            blocks.putIfAbsent(JarPatcher.hash(source, i), i);
+        }
+        long power = 1;
+        for (int i = 1; i < JarPatcher.BLOCK_SIZE; i++) {
+            power *= JarPatcher.PRIME;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(patch))))) {
+            out.writeInt(JarPatcher.MAGIC);
+            int position = 0;
+            int literalStart = 0;
+            long hash = data.length >= JarPatcher.BLOCK_SIZE ? JarPatcher.hash(data, 0) : 0;
+            while (position + JarPatcher.BLOCK_SIZE <= data.length) {
+                final Integer match = blocks.get(hash);
+                if (match != null && JarPatcher.regionMatches(source, match, data, position)) {
+                    int copyOffset = match;
+                    int copyStart = position;
+                    while (copyStart > literalStart && copyOffset > 0 && source[copyOffset - 1] == data[copyStart - 1]) {
+                        copyOffset--;
+                        copyStart--;
+                    }
+                    int end = position + JarPatcher.BLOCK_SIZE;
+                    int sourceEnd = match + JarPatcher.BLOCK_SIZE;
+                    while (end < data.length && sourceEnd < source.length && source[sourceEnd] == data[end]) {
+                        end++;
+                        sourceEnd++;
+                    }
+                    JarPatcher.writeAdd(out, data, literalStart, copyStart);
+                    out.write(JarPatcher.OP_COPY);
+                    out.writeLong(copyOffset);
+                    out.writeInt(end - copyStart);
+                    position = end;
+                    literalStart = end;
+                    if (position + JarPatcher.BLOCK_SIZE <= data.length) {
+                        hash = JarPatcher.hash(data, position);
+                    }
+                } else if (position + JarPatcher.BLOCK_SIZE < data.length) {
+                    hash = (hash - (data[position] & 0xFF) * power) * JarPatcher.PRIME + (data[position + JarPatcher.BLOCK_SIZE] & 0xFF);
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            JarPatcher.writeAdd(out, data, literalStart, data.length);
+            out.write(JarPatcher.OP_END);
+        }
+    }
+
+    public static void apply(File base, File patch, File target, String sha256) throws IOException {
+        final MessageDigest digest = Transfer.newDigest("SHA-256");
+        try (DataInputStream in = new DataInputStream(JarPatcher.open(patch));
+             RandomAccessFile source = new RandomAccessFile(base, "r");
+             OutputStream out = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(target)), digest)) {
+            if (in.readInt() != JarPatcher.MAGIC) {
+                throw new IOException("Invalid patch " + patch);
+            }
+            final byte[] buffer = new byte[64 * 1024];
+            int op;
+            while ((op = in.read()) != JarPatcher.OP_END) {
+                if (op == JarPatcher.OP_COPY) {
+                    final long offset = in.readLong();
+                    int length = in.readInt();
+                    if (offset < 0 || length < 0 || offset + length > source.length()) {
+                        throw new IOException("Patch copies outside of " + base);
+                    }
+                    source.seek(offset);
+                    while (length > 0) {
+                        final int count = Math.min(length, buffer.length);
+                        source.readFully(buffer, 0, count);
+                        out.write(buffer, 0, count);
+                        length -= count;
+                    }
+                } else if (op == JarPatcher.OP_ADD) {
+                    int length = in.readInt();
+                    if (length < 0) {
+                        throw new IOException("Invalid patch " + patch);
+                    }
+                    while (length > 0) {
+                        final int count = Math.min(length, buffer.length);
+                        in.readFully(buffer, 0, count);
+                        out.write(buffer, 0, count);
+                        length -= count;
+                    }
+                } else {
+                    throw new IOException("Invalid patch operation " + op + " in " + patch);
+                }
+            }
+        } catch (IOException e) {
+            target.delete();
+            throw e;
+        }
+
+        final String obtained = Transfer.toHex(digest.digest());
+        if (!obtained.equalsIgnoreCase(sha256)) {
+            target.delete();
+            throw new IOException("Patched jar has checksum " + obtained + ", expected " + sha256);
+        }
+    }
+
+    private static long hash(byte[] data, int offset) {
+        long hash = 0;
+        for (int i = offset; i < offset + JarPatcher.BLOCK_SIZE; i++) {
+            hash = hash * JarPatcher.PRIME + (data[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private static boolean regionMatches(byte[] source, int sourceOffset, byte[] data, int offset) {
+        for (int i = 0; i < JarPatcher.BLOCK_SIZE; i++) {
+            if (source[sourceOffset + i] != data[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeAdd(DataOutputStream out, byte[] data, int start, int end) throws IOException {
+        if (end > start) {
+            out.write(JarPatcher.OP_ADD);
+            out.writeInt(end - start);
+            out.write(data, start, end - start);
+        }
+    }
+
+    private static String sha256(File file) throws IOException {
+        final MessageDigest digest = Transfer.newDigest("SHA-256");
+        digest.update(Files.readAllBytes(file.toPath()));
+        return Transfer.toHex(digest.digest());
+    }
+
+    private static InputStream open(File patch) throws IOException {
+        final InputStream in = new BufferedInputStream(new FileInputStream(patch));
+        in.mark(2);
+        final int first = in.read();
+        final int second = in.read();
+        in.reset();
+        return first == 0x1F && second == 0x8B ? new GZIPInputStream(in) : in;
+    }
+}
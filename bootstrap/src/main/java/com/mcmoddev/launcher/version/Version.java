@@ -1,7 +1,17 @@
 package com.mcmoddev.launcher.version;
 
+import java.util.Arrays;
+
 public class Version implements Comparable<Version> {
-    private String version;
+    private static final String[] NO_IDENTIFIERS = new String[0];
+    private static final long[] NO_NUMBERS = new long[0];
+
+    private final String version;
+    private final int[] parts;
+    private final String[] preRelease;
+    private final long[] preReleaseNumbers;
+    private final String build;
+    private final int hash;
 
     public String get() {
         return this.version;
@@ -10,10 +20,112 @@ public class Version implements Comparable<Version> {
     public Version(String version) {
         if (version == null) {
             throw new IllegalArgumentException("Version cannot be null");
-        } else if (!version.matches("[0-9]+(\\.[0-9]+)*")) {
-            throw new IllegalArgumentException("Invalid version format");
         }
         this.version = version;
+
+        int end = version.length();
+        final int buildStart = version.indexOf('+');
+        if (buildStart >= 0) {
+            this.build = version.substring(buildStart + 1);
+            Version.parseIdentifiers(this.build, false);
+            end = buildStart;
+        } else {
+            this.build = null;
+        }
+
+        final int preReleaseStart = version.indexOf('-');
+        if (preReleaseStart >= 0 && preReleaseStart < end) {
+            this.preRelease = Version.parseIdentifiers(version.substring(preReleaseStart + 1, end), true);
+            this.preReleaseNumbers = new long[this.preRelease.length];
+            for (int i = 0; i < this.preRelease.length; i++) {
+                this.preReleaseNumbers[i] = Version.parseNumber(this.preRelease[i]);
+            }
+            end = preReleaseStart;
+        } else {
+            this.preRelease = Version.NO_IDENTIFIERS;
+            this.preReleaseNumbers = Version.NO_NUMBERS;
+        }
+
+        this.parts = Version.parseParts(version, end);
+        this.hash = 31 * Arrays.hashCode(this.parts) + Arrays.hashCode(this.preRelease);
+    }
+
+    private static int[] parseParts(String version, int end) {
+        int count = 1;
+        for (int i = 0; i < end; i++) {
+            if (version.charAt(i) == '.') {
+                count++;
+            }
+        }
+        final int[] parts = new int[count];
+        int part = 0;
+        int start = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || version.charAt(i) == '.') {
+                if (i == start) {
+                    throw new IllegalArgumentException("Invalid version format");
+                }
+                final long number = Version.parseNumber(version.substring(start, i));
+                if (number < 0 || number > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Invalid version format");
+                }
+                parts[part++] = (int) number;
+                start = i + 1;
+            }
+        }
+
+        int length = parts.length;
+        while (length > 1 && parts[length - 1] == 0) {
+            length--;
+        }
+        return length == parts.length ? parts : Arrays.copyOf(parts, length);
+    }
+
+    private static String[] parseIdentifiers(String identifiers, boolean preRelease) {
+        final String[] split = identifiers.split("\\.", -1);
+        for (String identifier : split) {
+            if (identifier.isEmpty()) {
+                throw new IllegalArgumentException("Invalid version format");
+            }
+            for (int i = 0; i < identifier.length(); i++) {
+                final char c = identifier.charAt(i);
+                if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '-')) {
+                    throw new IllegalArgumentException("Invalid version format");
+                }
+            }
+            if (preRelease && identifier.length() > 1 && identifier.charAt(0) == '0' && Version.parseNumber(identifier) >= 0) {
+                throw new IllegalArgumentException("Invalid version format");
+            }
+        }
+        return split;
+    }
+
+    private static long parseNumber(String string) {
+        if (string.length() > 18) {
+            for (int i = 0; i < string.length(); i++) {
+                if (string.charAt(i) < '0' || string.charAt(i) > '9') {
+                    return -1;
+                }
+            }
+            throw new IllegalArgumentException("Invalid version format");
+        }
+        long number = 0;
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    public String getBuild() {
+        return this.build;
+    }
+
+    public boolean isPreRelease() {
+        return this.preRelease.length > 0;
     }
 
     @Override
@@ -21,24 +133,45 @@ public class Version implements Comparable<Version> {
         if (version == null) {
             return 1;
         }
-        final String[] thisParts = this.get().split("\\.");
-        final String[] otherParts = version.get().split("\\.");
-        final int length = Math.max(thisParts.length, otherParts.length);
+        final int length = Math.max(this.parts.length, version.parts.length);
         for (int i = 0; i < length; i++) {
-            final int thisPart = i < thisParts.length ? Integer.parseInt(thisParts[i]) : 0;
-            final int thatPart = i < otherParts.length ? Integer.parseInt(otherParts[i]) : 0;
-            if (thisPart < thatPart) {
-                return -1;
-            } else if (thisPart > thatPart) {
-                return 1;
+            final int thisPart = i < this.parts.length ? this.parts[i] : 0;
+            final int thatPart = i < version.parts.length ? version.parts[i] : 0;
+            if (thisPart != thatPart) {
+                return thisPart < thatPart ? -1 : 1;
             }
         }
-        return 0;
+
+        if (this.preRelease.length == 0 || version.preRelease.length == 0) {
+            return Integer.compare(version.preRelease.length == 0 ? 0 : 1, this.preRelease.length == 0 ? 0 : 1);
+        }
+        final int preReleaseLength = Math.min(this.preRelease.length, version.preRelease.length);
+        for (int i = 0; i < preReleaseLength; i++) {
+            final long thisNumber = this.preReleaseNumbers[i];
+            final long thatNumber = version.preReleaseNumbers[i];
+            final int compare;
+            if (thisNumber >= 0 && thatNumber >= 0) {
+                compare = Long.compare(thisNumber, thatNumber);
+            } else if (thisNumber >= 0 || thatNumber >= 0) {
+                compare = thisNumber >= 0 ? -1 : 1;
+            } else {
+                compare = Integer.signum(this.preRelease[i].compareTo(version.preRelease[i]));
+            }
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return Integer.compare(this.preRelease.length, version.preRelease.length);
     }
 
     @Override
     public boolean equals(Object obj) {
-        return this == obj || obj != null && this.getClass() == obj.getClass() && this.compareTo((Version) obj) == 0;
+        return this == obj || obj != null && this.getClass() == obj.getClass() && this.hash == ((Version) obj).hash && this.compareTo((Version) obj) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
     }
 
     @Override
@@ -0,0 +1,129 @@
+package com.mcmoddev.launcher.update;
+
+import com.mcmoddev.launcher.util.Transfer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class JarPatcherTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsChangedJar() throws IOException {
+        final Random random = new Random(0);
+        final byte[] library = JarPatcherTest.randomBytes(random, 200000);
+        final byte[] oldClass = JarPatcherTest.randomBytes(random, 5000);
+        final byte[] newClass = JarPatcherTest.randomBytes(random, 6000);
+        final File base = this.jar("old.jar", "a/Library.class", library, "b/Main.class", oldClass);
+        final File target = this.jar("new.jar", "a/Library.class", library, "b/Main.class", newClass, "c/Added.class", oldClass);
+
+        final int[] ops = this.roundTrip(base, target);
+        assertTrue(ops[JarPatcher.OP_COPY] > 0);
+        assertTrue(ops[JarPatcher.OP_ADD] > 0);
+        assertTrue(new File(this.folder.getRoot(), "patch").length() < target.length() / 2);
+    }
+
+    @Test
+    public void copiesIdenticalJar() throws IOException {
+        final byte[] data = JarPatcherTest.randomBytes(new Random(1), 100000);
+        final File base = this.jar("old.jar", "a/Library.class", data);
+        final File target = this.jar("new.jar", "a/Library.class", data);
+
+        final int[] ops = this.roundTrip(base, target);
+        assertEquals(1, ops[JarPatcher.OP_COPY]);
+        assertEquals(0, ops[JarPatcher.OP_ADD]);
+    }
+
+    @Test
+    public void addsUnrelatedJar() throws IOException {
+        final Random random = new Random(2);
+        final File base = this.file("old.jar", JarPatcherTest.randomBytes(random, 50000));
+        final File target = this.file("new.jar", JarPatcherTest.randomBytes(random, 50000));
+
+        final int[] ops = this.roundTrip(base, target);
+        assertEquals(0, ops[JarPatcher.OP_COPY]);
+        assertEquals(1, ops[JarPatcher.OP_ADD]);
+    }
+
+    @Test
+    public void handlesFilesSmallerThanABlock() throws IOException {
+        this.roundTrip(this.file("old.jar", new byte[0]), this.file("new.jar", new byte[] {1, 2, 3}));
+        this.roundTrip(this.file("old.jar", new byte[] {1, 2, 3}), this.file("new.jar", new byte[0]));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsWrongChecksum() throws IOException {
+        final Random random = new Random(3);
+        final File base = this.file("old.jar", JarPatcherTest.randomBytes(random, 1000));
+        final File patch = new File(this.folder.getRoot(), "patch");
+        JarPatcher.create(base, this.file("new.jar", JarPatcherTest.randomBytes(random, 1000)), patch);
+        JarPatcher.apply(base, patch, new File(this.folder.getRoot(), "patched.jar"), JarPatcherTest.sha256(base));
+    }
+
+    private int[] roundTrip(File base, File target) throws IOException {
+        final File patch = new File(this.folder.getRoot(), "patch");
+        final File patched = new File(this.folder.getRoot(), "patched.jar");
+        JarPatcher.create(base, target, patch);
+        JarPatcher.apply(base, patch, patched, JarPatcherTest.sha256(target));
+        assertArrayEquals(Files.readAllBytes(target.toPath()), Files.readAllBytes(patched.toPath()));
+        return JarPatcherTest.countOps(patch);
+    }
+
+    private File jar(String name, Object... entries) throws IOException {
+        final File file = new File(this.folder.getRoot(), name);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < entries.length; i += 2) {
+                final JarEntry entry = new JarEntry((String) entries[i]);
+                entry.setTime(0);
+                out.putNextEntry(entry);
+                out.write((byte[]) entries[i + 1]);
+                out.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    private File file(String name, byte[] data) throws IOException {
+        final File file = new File(this.folder.getRoot(), name);
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    private static int[] countOps(File patch) throws IOException {
+        final int[] ops = new int[3];
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new FileInputStream(patch)))) {
+            assertEquals(JarPatcher.MAGIC, in.readInt());
+            int op;
+            while ((op = in.read()) != JarPatcher.OP_END) {
+                ops[op]++;
+                if (op == JarPatcher.OP_COPY) {
+                    in.readLong();
+                    in.readInt();
+                } else {
+                    in.skipBytes(in.readInt());
+                }
+            }
+        }
+        return ops;
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        final byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String sha256(File file) throws IOException {
+        return Transfer.toHex(Transfer.newDigest("SHA-256").digest(Files.readAllBytes(file.toPath())));
+    }
+}
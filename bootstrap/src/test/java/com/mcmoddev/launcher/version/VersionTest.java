@@ -0,0 +1,79 @@
+package com.mcmoddev.launcher.version;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class VersionTest {
+    @Test
+    public void ordersBySemverPrecedence() {
+        final String[] ordered = {"0.9.9", "1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta", "1.0.0-beta.2", "1.0.0-beta.11", "1.0.0-rc.1", "1.0.0", "1.0.1", "1.2", "1.10", "2"};
+        for (int i = 0; i < ordered.length; i++) {
+            for (int j = 0; j < ordered.length; j++) {
+                final int compare = new Version(ordered[i]).compareTo(new Version(ordered[j]));
+                assertEquals(ordered[i] + " vs " + ordered[j], Integer.signum(Integer.compare(i, j)), compare);
+            }
+        }
+    }
+
+    @Test
+    public void ignoresTrailingZeros() {
+        final Version version = new Version("1.0");
+        assertEquals(0, version.compareTo(new Version("1.0.0")));
+        assertEquals(version, new Version("1"));
+        assertEquals(version.hashCode(), new Version("1.0.0").hashCode());
+    }
+
+    @Test
+    public void ignoresBuildMetadata() {
+        final Version version = new Version("1.2.3+build.1");
+        assertEquals("build.1", version.getBuild());
+        assertEquals(version, new Version("1.2.3+build.2"));
+        assertEquals(version, new Version("1.2.3"));
+        assertNull(new Version("1.2.3").getBuild());
+    }
+
+    @Test
+    public void detectsPreReleases() {
+        assertTrue(new Version("1.0-rc.1").isPreRelease());
+        assertTrue(new Version("1.0-rc.1+build").isPreRelease());
+        assertFalse(new Version("1.0+build-1").isPreRelease());
+    }
+
+    @Test
+    public void worksAsMapKey() {
+        final Map<Version, String> map = new HashMap<>();
+        map.put(new Version("1.0.0"), "release");
+        map.put(new Version("1.0.0-rc.1"), "candidate");
+        assertEquals("release", map.get(new Version("1.0")));
+        assertEquals("candidate", map.get(new Version("1-rc.1")));
+        assertNull(map.get(new Version("1.0.1")));
+    }
+
+    @Test
+    public void sortsAfterNull() {
+        assertTrue(new Version("0").compareTo(null) > 0);
+        assertNotEquals(new Version("1.0"), null);
+    }
+
+    @Test
+    public void rejectsInvalidVersions() {
+        final String[] invalid = {"", "1.", ".1", "a", "1..2", "1.0-", "1.0-01", "1.0-alpha..1", "1.0-al_pha", "1+", "1.0+build+2", "-1", "99999999999"};
+        for (String version : invalid) {
+            try {
+                new Version(version);
+                fail("Accepted invalid version \"" + version + "\"");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Invalid version format", e.getMessage());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNull() {
+        new Version(null);
+    }
+}
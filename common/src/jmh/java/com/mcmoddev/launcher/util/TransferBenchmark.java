@@ -0,0 +1,77 @@
+package com.mcmoddev.launcher.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransferBenchmark {
+    @Param({"1048576", "33554432"})
+    public int size;
+
+    private File source;
+    private File target;
+
+    @Setup
+    public void setup() throws IOException {
+        this.source = File.createTempFile("transfer", ".src");
+        this.target = File.createTempFile("transfer", ".dst");
+        final byte[] data = new byte[this.size];
+        new Random(0).nextBytes(data);
+        Files.write(this.source.toPath(), data);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.source.delete();
+        this.target.delete();
+    }
+
+    // The loop Launcher.downloadFile used before Transfer: 1 KB chunks, float progress per chunk, hash read back afterwards
+    @Benchmark
+    public byte[] legacyCopy(Blackhole blackhole) throws IOException {
+        final long contentLength = this.source.length();
+        long downloaded = 0;
+        try (InputStream inputStream = new FileInputStream(this.source); BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(this.target))) {
+            final byte[] data = new byte[1024];
+            int i;
+            while ((i = inputStream.read(data, 0, 1024)) >= 0) {
+                downloaded += i;
+                blackhole.consume((float) downloaded / contentLength * 100.0F);
+                bufferedOutputStream.write(data, 0, i);
+            }
+        }
+        final MessageDigest digest = Transfer.newDigest("SHA-256");
+        try (InputStream inputStream = new FileInputStream(this.target)) {
+            final byte[] data = new byte[1024];
+            int i;
+            while ((i = inputStream.read(data)) >= 0) {
+                digest.update(data, 0, i);
+            }
+        }
+        return digest.digest();
+    }
+
+    @Benchmark
+    public byte[] transferCopy(Blackhole blackhole) throws IOException {
+        final MessageDigest digest = Transfer.newDigest("SHA-256");
+        try (ReadableByteChannel source = Channels.newChannel(new FileInputStream(this.source)); FileChannel channel = FileChannel.open(this.target.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Transfer.copy(source, channel, digest, blackhole::consume);
+        }
+        return digest.digest();
+    }
+}
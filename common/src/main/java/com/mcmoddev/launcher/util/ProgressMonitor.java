@@ -0,0 +1,68 @@
+package com.mcmoddev.launcher.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+public class ProgressMonitor {
+    public static final int FRAME_RATE = 30;
+    public static final int COMPLETE = 100;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Progress Monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final IntSupplier source;
+    private final IntConsumer listener;
+    private final boolean monotonic;
+
+    private ScheduledFuture<?> future;
+    private int lastProgress = -1;
+    private boolean stopped;
+
+    public ProgressMonitor(IntSupplier source, IntConsumer listener) {
+        this(source, listener, false);
+    }
+
+    public ProgressMonitor(IntSupplier source, IntConsumer listener, boolean monotonic) {
+        this.source = source;
+        this.listener = listener;
+        this.monotonic = monotonic;
+    }
+
+    public synchronized ProgressMonitor start() {
+        if (this.future == null && !this.stopped) {
+            this.future = ProgressMonitor.SCHEDULER.scheduleAtFixedRate(this::sample, 0, 1000 / ProgressMonitor.FRAME_RATE, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    public synchronized void stop() {
+        if (this.future != null) {
+            this.future.cancel(false);
+            this.future = null;
+        }
+        if (!this.stopped) {
+            this.stopped = true;
+            this.lastProgress = Math.min(ProgressMonitor.COMPLETE, this.source.getAsInt());
+            this.listener.accept(this.lastProgress);
+        }
+    }
+
+    private synchronized void sample() {
+        final int progress = Math.min(ProgressMonitor.COMPLETE, this.source.getAsInt());
+        if (progress != this.lastProgress) {
+            this.lastProgress = progress;
+            this.listener.accept(progress);
+        }
+        if (this.monotonic && progress >= ProgressMonitor.COMPLETE && this.future != null) {
+            this.future.cancel(false);
+            this.future = null;
+        }
+    }
+}
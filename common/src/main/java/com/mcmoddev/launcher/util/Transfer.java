@@ -0,0 +1,89 @@
+package com.mcmoddev.launcher.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class Transfer {
+    public static final int BUFFER_SIZE = 256 * 1024;
+    public static final long PROGRESS_INTERVAL = 50L * 1000 * 1000;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(Transfer.BUFFER_SIZE));
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Transfer() {
+    }
+
+    public static long copy(ReadableByteChannel source, FileChannel target, MessageDigest digest, ITransferListener listener) throws IOException {
+        final ByteBuffer buffer = Transfer.BUFFER.get();
+        buffer.clear();
+        long transferred = 0;
+        long lastUpdate = System.nanoTime();
+        while (source.read(buffer) >= 0) {
+            buffer.flip();
+            if (digest != null) {
+                buffer.mark();
+                digest.update(buffer);
+                buffer.reset();
+            }
+            while (buffer.hasRemaining()) {
+                transferred += target.write(buffer);
+            }
+            buffer.clear();
+            if (listener != null) {
+                final long now = System.nanoTime();
+                if (now - lastUpdate >= Transfer.PROGRESS_INTERVAL) {
+                    lastUpdate = now;
+                    listener.onTransferred(transferred);
+                }
+            }
+        }
+        if (listener != null) {
+            listener.onTransferred(transferred);
+        }
+        return transferred;
+    }
+
+    public static void digest(FileChannel source, long length, MessageDigest digest) throws IOException {
+        final ByteBuffer buffer = Transfer.BUFFER.get();
+        long position = 0;
+        while (position < length) {
+            buffer.clear();
+            if (length - position < buffer.capacity()) {
+                buffer.limit((int) (length - position));
+            }
+            final int read = source.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file after " + position + " bytes");
+            }
+            position += read;
+            buffer.flip();
+            digest.update(buffer);
+        }
+        source.position(length);
+    }
+
+    public static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Missing digest algorithm " + algorithm, e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = Transfer.HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = Transfer.HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    public interface ITransferListener {
+        void onTransferred(long transferred);
+    }
+}
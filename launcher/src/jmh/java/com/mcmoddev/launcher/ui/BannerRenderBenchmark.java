@@ -0,0 +1,50 @@
+package com.mcmoddev.launcher.ui;
+
+import com.mcmoddev.launcher.resource.ResourceLoader;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BannerRenderBenchmark {
+    private BufferedImage banner;
+    private BufferedImage compatibleBanner;
+    private BufferedImage frame;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setup() throws IOException {
+        this.banner = ImageIO.read(BannerRenderBenchmark.class.getResource("/assets/textures/banner.png"));
+        this.compatibleBanner = ResourceLoader.toCompatibleImage(this.banner, Math.max(854, this.banner.getWidth()), Math.max(358, this.banner.getHeight()));
+        this.frame = ResourceLoader.toCompatibleImage(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), 854, 448);
+        this.graphics = this.frame.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.graphics.dispose();
+    }
+
+    // What LauncherPanel.paintComponent did before. The shipped banner is 854x421, so this is no scaling, only a
+    // conversion from the decoded image's color model on every paint
+    @Benchmark
+    public BufferedImage decodedPaint() {
+        this.graphics.drawImage(this.banner, 0, 0, Math.max(854, this.banner.getWidth()), Math.max(358, this.banner.getHeight()), null);
+        return this.frame;
+    }
+
+    @Benchmark
+    public BufferedImage compatiblePaint() {
+        this.graphics.drawImage(this.compatibleBanner, 0, 0, null);
+        return this.frame;
+    }
+}
@@ -1,13 +1,32 @@
 package com.mcmoddev.launcher;
 
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
 import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
+import com.mcmoddev.launcher.cache.HashIndex;
+import com.mcmoddev.launcher.cache.LibraryPrefetcher;
+import com.mcmoddev.launcher.cache.ManifestCache;
+import com.mcmoddev.launcher.cache.ModStore;
+import com.mcmoddev.launcher.download.DownloadScheduler;
+import com.mcmoddev.launcher.download.DownloadTask;
+import com.mcmoddev.launcher.download.IDownloadListener;
+import com.mcmoddev.launcher.instance.Instance;
+import com.mcmoddev.launcher.jvm.JavaInstallation;
+import com.mcmoddev.launcher.jvm.JvmProfile;
+import com.mcmoddev.launcher.log.ProcessLogger;
+import com.mcmoddev.launcher.mod.IManifestHandler;
+import com.mcmoddev.launcher.mod.InstalledPack;
+import com.mcmoddev.launcher.mod.Manifest;
+import com.mcmoddev.launcher.mod.ManifestDelta;
 import com.mcmoddev.launcher.mod.Mod;
 import com.mcmoddev.launcher.mod.ModConfig;
 import com.mcmoddev.launcher.resource.ResourceLoader;
 import com.mcmoddev.launcher.resource.lang.Translator;
 import com.mcmoddev.launcher.ui.IProgressCallback;
 import com.mcmoddev.launcher.ui.LauncherFrame;
+import com.mcmoddev.launcher.ui.LauncherPanel;
+import com.mcmoddev.launcher.util.ProgressMonitor;
+import com.mcmoddev.launcher.util.Transfer;
 
 import org.apache.commons.io.FileDeleteStrategy;
 import org.apache.commons.io.FileUtils;
@@ -19,14 +38,34 @@ import uk.co.rx14.jmclaunchlib.auth.YggdrasilAuth;
 import uk.co.rx14.jmclaunchlib.exceptions.ForbiddenOperationException;
 import uk.co.rx14.jmclaunchlib.util.OS;
 
+import javax.swing.*;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
-import java.nio.file.Paths;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 public enum Launcher {
@@ -35,41 +74,91 @@ public enum Launcher {
     public File dataDir;
     public File configFile;
     public File cacheDir;
-    public File modsDir;
-    public File coreModsDir;
-    public File configDir;
     public JsonObject config;
+    public Instance instance;
     public boolean isCached;
     public JsonObject cache;
 
+    public ModStore modStore;
+    public HashIndex hashIndex;
+    public ManifestCache manifestCache;
     public ResourceLoader resourceLoader;
     public Translator translator;
     public LauncherFrame frame;
+    public CompletableFuture<Void> ready;
+    public CompletableFuture<Exception> backgroundSync;
+
+    private DownloadScheduler backgroundScheduler;
+    private LibraryPrefetcher backgroundPrefetcher;
+    private volatile boolean backgroundCancelled;
 
     public static void main(String[] args) {
         List<String> argumentList = Arrays.asList(args);
-        Launcher.INSTANCE.init(argumentList.contains("--portable") || argumentList.contains("-p"));
+        final int instanceIndex = argumentList.indexOf("--instance");
+        final String instanceName = instanceIndex >= 0 && instanceIndex + 1 < argumentList.size() ? argumentList.get(instanceIndex + 1) : null;
+        Launcher.INSTANCE.init(argumentList.contains("--portable") || argumentList.contains("-p"), instanceName);
     }
 
-    private void init(boolean portable) {
+    private void init(boolean portable, String instanceName) {
+        final StartupTimer timer = new StartupTimer();
         this.dataDir = portable ? new File(".") : this.getDataFolder();
         this.configFile = new File(this.dataDir, "launcher.json");
         this.cacheDir = new File(this.dataDir, "cache");
-        this.modsDir = new File(this.dataDir, "mods");
-        this.coreModsDir = new File(this.modsDir, "1.12.2");
-        this.configDir = new File(this.dataDir, "config");
 
         if (!this.dataDir.exists()) {
             if (!this.dataDir.mkdirs()) {
                 throw new RuntimeException("Failed to create data dir");
             }
         }
+        if (!this.cacheDir.exists()) {
+            if (!this.cacheDir.mkdirs()) {
+                throw new RuntimeException("Failed to create cache dir");
+            }
+        }
 
-        if (this.configFile.exists()) {
+        this.resourceLoader = new ResourceLoader(this.cacheDir);
+        final CompletableFuture<Void> images = timer.track("images", CompletableFuture.allOf(
+                this.resourceLoader.loadImageAsync(LauncherFrame.LOGO),
+                this.resourceLoader.loadImageAsync(LauncherPanel.BANNER)
+        ));
+        timer.run("config", () -> {
+            this.loadConfig();
+            this.instance = this.loadInstance(instanceName);
+        });
+
+        final CompletableFuture<Void> caches = timer.track("caches", CompletableFuture.runAsync(() -> {
+            this.hashIndex = new HashIndex(this.cacheDir);
+            this.modStore = new ModStore(this.cacheDir, this.config.get("modCacheSize").getAsLong() * 1024 * 1024, this.hashIndex);
+            this.manifestCache = new ManifestCache(this.instance.getDir());
+        }));
+        final CompletableFuture<Void> language = timer.track("language", CompletableFuture.runAsync(() -> this.translator = new Translator(this.config.get("language").getAsString(), this.resourceLoader)));
+        final CompletableFuture<Void> auth = timer.track("auth", CompletableFuture.runAsync(this::loadAuthCache));
+        this.ready = CompletableFuture.allOf(caches, language);
+        timer.track("manifest", caches.thenRunAsync(() -> {
             try {
-                this.config = new JsonParser().parse(new FileReader(this.configFile)).getAsJsonObject();
+                this.manifestCache.load(this.instance.getURL());
+            } catch (IOException e) {
+                System.out.println("Failed to prefetch modpack manifest: " + e);
+            }
+        }));
+
+        auth.join();
+        SwingUtilities.invokeLater(() -> {
+            timer.run("frame", () -> this.frame = new LauncherFrame());
+            timer.report("window visible");
+            if (this.config.get("backgroundSync").getAsBoolean()) {
+                this.startBackgroundSync();
+            }
+            images.thenRun(() -> System.out.println("Resources: " + this.resourceLoader.getStatistics()));
+        });
+    }
+
+    private void loadConfig() {
+        if (this.configFile.exists()) {
+            try (Reader reader = new FileReader(this.configFile)) {
+                this.config = new JsonParser().parse(reader).getAsJsonObject();
                 this.updateConfig(this.config);
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 e.printStackTrace();
             }
         } else {
@@ -84,26 +173,47 @@ public enum Launcher {
             }
             this.saveConfig();
         }
+    }
 
-        if (this.cacheDir.exists()) {
-            final File authFile = new File(this.cacheDir, "auth.json");
-            if (authFile.exists()) {
-                try {
-                    this.cache = new JsonParser().parse(new FileReader(authFile)).getAsJsonObject();
-                    this.isCached = this.cache.get(this.config.get("username").getAsString()).getAsJsonObject().get("valid").getAsBoolean();
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                }
+    private void loadAuthCache() {
+        final File authFile = new File(this.cacheDir, "auth.json");
+        if (authFile.exists()) {
+            try (Reader reader = new FileReader(authFile)) {
+                this.cache = new JsonParser().parse(reader).getAsJsonObject();
+                this.isCached = this.cache.get(this.config.get("username").getAsString()).getAsJsonObject().get("valid").getAsBoolean();
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-        } else {
-            if (!this.cacheDir.mkdirs()) {
-                throw new RuntimeException("Failed to create cache dir");
+        }
+    }
+
+    private Instance loadInstance(String name) {
+        final JsonObject instances = this.config.getAsJsonObject("instances");
+        String selected = name != null ? name : this.config.get("selectedInstance").getAsString();
+        if (!instances.has(selected)) {
+            final String fallback = instances.has(Instance.DEFAULT_NAME) ? Instance.DEFAULT_NAME : instances.entrySet().iterator().next().getKey();
+            System.out.println("Unknown instance " + selected + ", using " + fallback);
+            selected = fallback;
+        }
+        Instance instance;
+        try {
+            instance = this.createInstance(instances, selected);
+        } catch (IllegalArgumentException e) {
+            if (selected.equals(Instance.DEFAULT_NAME) || !instances.has(Instance.DEFAULT_NAME)) {
+                throw e;
             }
+            System.out.println(e.getMessage() + ", using " + Instance.DEFAULT_NAME);
+            instance = this.createInstance(instances, Instance.DEFAULT_NAME);
         }
+        System.out.println("Using instance " + instance + " (" + instance.getForgeVersion() + ") in " + instance.getDir());
+        return instance;
+    }
 
-        this.resourceLoader = new ResourceLoader(this.cacheDir);
-        this.translator = new Translator(this.config.get("language").getAsString(), this.resourceLoader);
-        this.frame = new LauncherFrame();
+    private Instance createInstance(JsonObject instances, String name) {
+        if (!instances.get(name).isJsonObject()) {
+            throw new IllegalArgumentException("Instance " + name + " in " + this.configFile + " is not an object");
+        }
+        return new Instance(name, instances.getAsJsonObject(name), this.dataDir);
     }
 
     public void updateConfig(JsonObject config) {
@@ -111,14 +221,31 @@ public enum Launcher {
         this.putIfNull(config, "javaHome", System.getProperty("java.home"));
         this.putIfNull(config, "launcherBehaviour", 0);
         this.putIfNull(config, "language", Translator.DEFAULT_LANGUAGE);
-        this.putIfNull(config, "url", "https://raw.githubusercontent.com/MinecraftModDevelopment/MMD-Launcher/gh-pages/modpack.json");
-        String[] array = new String[5];
-        array[0] = "-Xmx4G";
-        array[1] = "-XX:+UseConcMarkSweepGC";
-        array[2] = "-XX:+CMSIncrementalMode";
-        array[3] = "-XX:-UseAdaptiveSizePolicy";
-        array[4] = "-Xmn256M";
-        this.putIfNull(config, "jvmArguments", array);
+        this.putIfNull(config, "downloadThreads", 8);
+        this.putIfNull(config, "maxHostConnections", 4);
+        this.putIfNull(config, "modCacheSize", 4096);
+        this.putIfNull(config, "backgroundSync", false);
+        this.putIfNull(config, "prefetchGameFiles", true);
+        if (!config.has("instances") || !config.get("instances").isJsonObject() || config.getAsJsonObject("instances").size() == 0) {
+            final JsonObject instance = new JsonObject();
+            instance.addProperty("dir", ".");
+            instance.addProperty("gameVersion", Instance.DEFAULT_GAME_VERSION);
+            instance.addProperty("forgeVersion", Instance.DEFAULT_FORGE_VERSION);
+            instance.addProperty("url", config.has("url") ? config.get("url").getAsString() : Instance.DEFAULT_URL);
+            instance.addProperty("jvmProfile", config.has("jvmProfile") ? config.get("jvmProfile").getAsString() : "auto");
+            instance.addProperty("maxMemory", config.has("maxMemory") ? config.get("maxMemory").getAsInt() : 0);
+            final JsonObject instances = new JsonObject();
+            instances.add(Instance.DEFAULT_NAME, instance);
+            config.add("instances", instances);
+        }
+        config.remove("url");
+        config.remove("jvmProfile");
+        config.remove("maxMemory");
+        this.putIfNull(config, "selectedInstance", Instance.DEFAULT_NAME);
+        if (config.has("jvmArguments") && config.get("jvmArguments").toString().contains("-XX:+CMSIncrementalMode")) {
+            config.remove("jvmArguments");
+        }
+        this.putIfNull(config, "jvmArguments", new String[0]);
     }
 
     public void putIfNull(JsonObject config, String key, Object value) {
@@ -148,6 +275,7 @@ public enum Launcher {
     }
 
     public void startMinecraft(PasswordSupplier passwordSupplier, final IProgressCallback progressCallback) throws IOException {
+        this.ready.join();
         try {
             if (!this.isCached) {
                 YggdrasilAuth.auth(this.config.get("username").getAsString(), passwordSupplier.getPassword(null, false, null));
@@ -159,29 +287,20 @@ public enum Launcher {
             return;
         }
 
-        final Map<String, JsonObject> map = new Gson().fromJson(new InputStreamReader(new URL(this.config.get("url").getAsString()).openStream()), new TypeToken<Map<String, JsonObject>>() {}.getType());
-        List<Mod> modList = map.entrySet().stream().map(entry -> new Mod(entry.getKey(), entry.getValue())).collect(Collectors.toList());
-        if (!this.modsDir.exists()) {
-            this.modsDir.mkdirs();
-        }
-        if (!this.coreModsDir.exists()) {
-            this.coreModsDir.mkdirs();
-        }
-        if (!this.configDir.exists()) {
-            this.configDir.mkdirs();
-        }
-        final File[] files = this.modsDir.listFiles();
-        if (files != null) {
-            final List<String> modNames = modList.stream().map(Mod::getFileName).collect(Collectors.toList());
-            for (File file : files) {
-                if (!file.isDirectory() && !modNames.contains(file.getName())) {
-                    System.out.println("Removing mod " + file.getName());
-                    FileDeleteStrategy.FORCE.delete(file);
-                }
+        boolean synced = false;
+        if (this.backgroundSync != null) {
+            if (this.backgroundSync.isDone()) {
+                synced = this.backgroundSync.join() == null;
+            } else {
+                this.cancelBackgroundSync();
+            }
+            this.backgroundSync = null;
+            if (synced) {
+                this.frame.panel.setTaskCount(0);
+                this.reportSyncResult(null);
             }
         }
-        modList.removeIf(mod -> !mod.doDownload(new File(mod.getModType().getFile(), mod.getFileName())));
-        final Exception e = this.downloadMods(modList);
+        final Exception e = synced ? null : this.syncMods(this.instance.getURL(), false);
         if (e != null) {
             this.frame.panel.username.setEnabled(true);
             this.frame.panel.password.setEnabled(true);
@@ -190,32 +309,44 @@ public enum Launcher {
 
         final LaunchTask task = new LaunchTaskBuilder()
                 .setCachesDir(this.cacheDir.toPath())
-                .setForgeVersion("1.12.2", "1.12.2-14.23.2.2625")
-                .setInstanceDir(this.dataDir.toPath())
+                .setForgeVersion(this.instance.getGameVersion(), this.instance.getForgeVersion())
+                .setInstanceDir(this.instance.getDir().toPath())
                 .setUsername(this.config.get("username").getAsString())
                 .setPasswordSupplier(passwordSupplier)
                 .build();
 
-        new Thread() {
-            @Override
-            public void run() {
-                while (task.getCompletedPercentage() < 100) {
-                    progressCallback.onProgress((int) task.getCompletedPercentage());
-                }
-                progressCallback.onProgress(100);
-            }
-        }.start();
-
-        final LaunchSpec launchSpec = task.getSpec();
+        final ProgressMonitor progressMonitor = new ProgressMonitor(() -> (int) task.getCompletedPercentage(), progressCallback::onProgress, true).start();
+        final LaunchSpec launchSpec;
+        try {
+            launchSpec = task.getSpec();
+        } finally {
+            progressMonitor.stop();
+        }
+        progressCallback.onProgress(ProgressMonitor.COMPLETE);
+        final LibraryPrefetcher prefetcher = new LibraryPrefetcher(this.cacheDir, this::downloadFile, this.translator);
+        if (!prefetcher.isLayoutVerified() && prefetcher.verifyLayout(this.instance.getGameVersion())) {
+            System.out.println("Game cache layout matches, game files will be prefetched from now on");
+        }
         this.frame.panel.loadAvatar(launchSpec.getAuth().getSelectedProfile().getName());
-        final Process process = launchSpec.run(Paths.get(this.config.get("javaHome").getAsString(), "bin", OS.getCURRENT() == OS.WINDOWS ? "java.exe" : "java"));
+        final File javaHome = new File(this.config.get("javaHome").getAsString());
+        final File javaPath = new File(javaHome, "bin" + File.separator + (OS.getCURRENT() == OS.WINDOWS ? "java.exe" : "java"));
+        final List<String> extraArguments = new ArrayList<>();
+        for (JsonElement argument : this.config.getAsJsonArray("jvmArguments")) {
+            extraArguments.add(argument.getAsString());
+        }
+        final List<String> jvmArguments = JvmProfile.fromName(this.instance.getJvmProfile())
+                .getArguments(JavaInstallation.get(javaHome, javaPath), this.instance.getMaxMemory(), extraArguments);
+        System.out.println("JVM arguments: " + String.join(" ", jvmArguments));
+        launchSpec.getJvmArgs().removeIf(argument -> argument.startsWith("-Xmx") || argument.startsWith("-Xms"));
+        launchSpec.getJvmArgs().addAll(jvmArguments);
+        final Process process = launchSpec.run(javaPath.toPath());
 
-        final InputStream inputStream = process.getInputStream();
-        final InputStreamReader streamReader = new InputStreamReader(inputStream);
-        final BufferedReader bufferedReader = new BufferedReader(streamReader);
-        String line;
-        while ((line = bufferedReader.readLine()) != null) {
-            System.out.println(line);
+        final ProcessLogger logger = new ProcessLogger(new File(this.instance.getLogsDir(), "launcher"));
+        logger.attach(process);
+        try {
+            logger.waitFor();
+        } catch (InterruptedException e1) {
+            Thread.currentThread().interrupt();
         }
 
         if (this.config.get("launcherBehaviour").getAsInt() != 0) {
@@ -228,55 +359,348 @@ public enum Launcher {
         }
     }
 
-    public Exception downloadMods(List<Mod> modList) {
-        this.frame.panel.taskCount = modList.size();
-        modList.stream().filter(Mod::hasConfig).forEach(mod -> Arrays.asList(mod.getConfigs()).forEach(config -> this.frame.panel.taskCount++));
-        this.frame.panel.currentTask = -1;
-        for (Mod mod : modList) {
-            this.frame.panel.currentTask++;
-            this.frame.panel.currentTaskName = this.translator.translate("ui.downloading_mod", mod);
-            Exception e = this.downloadFile(mod.getURL(), new File(mod.getModType().getFile(), mod.getFileName()));
-            if (e != null) {
-                this.frame.panel.currentTaskName = e.getClass().getName();
+    public void startBackgroundSync() {
+        final CompletableFuture<Exception> backgroundSync = new CompletableFuture<>();
+        this.backgroundSync = backgroundSync;
+        synchronized (this) {
+            this.backgroundCancelled = false;
+            this.backgroundScheduler = null;
+            this.backgroundPrefetcher = null;
+        }
+        final Thread thread = new Thread(() -> {
+            try {
+                this.ready.join();
+                final Exception e = this.syncMods(this.instance.getURL(), true);
+                System.out.println(e == null ? "Background sync complete" : "Background sync failed: " + e);
+                backgroundSync.complete(e);
+            } catch (Exception e) {
+                e.printStackTrace();
+                backgroundSync.complete(e);
+            }
+        }, "Background Sync");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    public void cancelBackgroundSync() {
+        System.out.println("Cancelling background sync, syncing in the foreground");
+        synchronized (this) {
+            this.backgroundCancelled = true;
+            if (this.backgroundScheduler != null) {
+                this.backgroundScheduler.shutdown();
+            }
+            if (this.backgroundPrefetcher != null) {
+                this.backgroundPrefetcher.cancel();
+            }
+        }
+        this.backgroundSync.join();
+    }
+
+    public Exception syncMods(String url, boolean background) throws IOException {
+        this.instance.createDirs();
+
+        final DownloadScheduler scheduler = this.createScheduler(background);
+        final LibraryPrefetcher prefetcher = new LibraryPrefetcher(this.cacheDir, this::downloadFile, this.translator);
+        if (background) {
+            synchronized (this) {
+                if (this.backgroundCancelled) {
+                    scheduler.shutdown();
+                    return new InterruptedException("Background sync cancelled");
+                }
+                this.backgroundScheduler = scheduler;
+                this.backgroundPrefetcher = prefetcher;
+            }
+        }
+        if (!background) {
+            this.frame.panel.setCurrentTaskName(this.translator.translate("ui.verifying_mods"));
+        }
+        final ExecutorService verifier = Executors.newFixedThreadPool(background ? 1 : Runtime.getRuntime().availableProcessors(), runnable -> {
+            final Thread thread = new Thread(runnable, "Mod Verifier");
+            thread.setDaemon(true);
+            thread.setPriority(background ? Thread.MIN_PRIORITY : Thread.NORM_PRIORITY);
+            return thread;
+        });
+        final CompletableFuture<Void> prefetch = !this.config.get("prefetchGameFiles").getAsBoolean() || !prefetcher.isLayoutVerified() ? CompletableFuture.completedFuture(null) : CompletableFuture.runAsync(() -> {
+            try {
+                prefetcher.prefetch(this.instance.getGameVersion(), this.instance.getForgeVersion(), scheduler);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Failed to prefetch game libraries: " + e);
+            }
+        });
+        try {
+            final InstalledPack installed = new InstalledPack(this.instance);
+            final Set<String> queued = ConcurrentHashMap.newKeySet();
+            final List<Mod> pending = Collections.synchronizedList(new ArrayList<>());
+            final List<Future<?>> verifications = new ArrayList<>();
+            final AtomicReference<ManifestDelta> appliedDelta = new AtomicReference<>();
+            final Manifest manifest = this.manifestCache.load(url, new IManifestHandler() {
+                @Override
+                public void onDelta(ManifestDelta delta) {
+                    if (delta.getBase().equals(installed.getRevision())) {
+                        System.out.println("Applying modpack delta from revision " + delta.getBase() + ": " + delta.getAdded().size() + " added, "
+                                + delta.getChanged().size() + " changed, " + delta.getRemoved().size() + " removed");
+                        appliedDelta.set(delta);
+                    }
+                }
+
+                @Override
+                public void onMod(Mod mod) {
+                    final ManifestDelta delta = appliedDelta.get();
+                    verifications.add(verifier.submit(() -> {
+                        if (background && Launcher.this.backgroundCancelled) {
+                            return;
+                        }
+                        final File file = mod.getFile(Launcher.this.instance);
+                        if (delta != null && !delta.contains(mod.getName()) && file.exists()) {
+                            return;
+                        }
+                        if (mod.doDownload(file) && !Launcher.this.renameMod(mod, file, installed)) {
+                            pending.add(mod);
+                            Launcher.this.queueMod(scheduler, mod, queued);
+                        }
+                    }));
+                }
+            });
+            try {
+                for (Future<?> verification : verifications) {
+                    verification.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
                 return e;
             }
-            if (mod.hasConfig()) {
-                for (ModConfig config : mod.getConfigs()) {
-                    this.frame.panel.currentTask++;
-                    this.frame.panel.currentTaskName = this.translator.translate("ui.downloading_config", config.getFile(), mod);
-                    e = this.downloadFile(config.getURL(), new File(this.configDir, config.getFile()));
-                    if (e != null) {
-                        this.frame.panel.currentTaskName = e.getClass().getName();
-                        return e;
+            this.hashIndex.save();
+            if (background && this.backgroundCancelled) {
+                prefetch.join();
+                return new InterruptedException("Background sync cancelled");
+            }
+
+            final List<Mod> modList = manifest.getMods();
+            final Set<String> modNames = modList.stream().map(Mod::getName).collect(Collectors.toSet());
+            final Set<File> modFiles = modList.stream().map(mod -> mod.getFile(this.instance).getAbsoluteFile()).collect(Collectors.toSet());
+            final ManifestDelta delta = appliedDelta.get();
+            for (String name : delta != null ? delta.getRemoved() : installed.getModNames()) {
+                final File file = installed.getFile(name);
+                if (file != null && !modNames.contains(name) && file.isFile() && !modFiles.contains(file)) {
+                    System.out.println("Removing mod " + file.getName());
+                    FileDeleteStrategy.FORCE.delete(file);
+                }
+            }
+            final File[] files = this.instance.getModsDir().listFiles();
+            if (files != null) {
+                final Set<String> fileNames = modList.stream().map(Mod::getFileName).collect(Collectors.toSet());
+                for (File file : files) {
+                    if (!file.isDirectory() && !fileNames.contains(file.getName())) {
+                        System.out.println("Removing mod " + file.getName());
+                        FileDeleteStrategy.FORCE.delete(file);
                     }
                 }
             }
+
+            prefetch.join();
+            final Exception e = this.finishDownloads(scheduler, pending);
+            if (!background) {
+                this.reportSyncResult(e);
+            }
+            if (e == null) {
+                installed.update(manifest.getRevision(), modList);
+                installed.save();
+                this.modStore.collectGarbage(modList.stream().map(Mod::getSHA256).filter(Objects::nonNull).collect(Collectors.toSet()));
+                this.hashIndex.save();
+            }
+            return e;
+        } finally {
+            verifier.shutdown();
+            scheduler.shutdown();
+        }
+    }
+
+    public Exception downloadMods(List<Mod> modList) {
+        final DownloadScheduler scheduler = this.createScheduler(false);
+        try {
+            final Set<String> queued = new HashSet<>();
+            for (Mod mod : modList) {
+                this.queueMod(scheduler, mod, queued);
+            }
+            final Exception e = this.finishDownloads(scheduler, modList);
+            this.reportSyncResult(e);
+            return e;
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    public boolean renameMod(Mod mod, File file, InstalledPack installed) {
+        final File previous = installed.getFile(mod.getName());
+        if (mod.getSHA256() == null || previous == null || previous.getAbsoluteFile().equals(file.getAbsoluteFile()) || !previous.isFile()) {
+            return false;
+        }
+        try {
+            if (!mod.getSHA256().equals(this.hashIndex.getSHA256(previous))) {
+                return false;
+            }
+            Files.move(previous.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.hashIndex.put(file, mod.getSHA256());
+            System.out.println("Renamed mod " + previous.getName() + " to " + file.getName());
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public DownloadScheduler createScheduler(boolean background) {
+        if (background) {
+            return new DownloadScheduler(Math.min(2, this.config.get("downloadThreads").getAsInt()), this.config.get("maxHostConnections").getAsInt(), Thread.MIN_PRIORITY, this::downloadFile, null);
+        }
+        this.frame.panel.setCurrentProgress(0);
+        this.frame.panel.setCurrentTask(0);
+        this.frame.panel.setTaskCount(0);
+        return new DownloadScheduler(this.config.get("downloadThreads").getAsInt(), this.config.get("maxHostConnections").getAsInt(), this::downloadFile, new IDownloadListener() {
+            @Override
+            public void onTaskQueued(DownloadTask task, int total) {
+                Launcher.this.frame.panel.setTaskCount(total);
+            }
+
+            @Override
+            public void onTaskStarted(DownloadTask task) {
+                Launcher.this.frame.panel.setCurrentTaskName(task.getName());
+            }
+
+            @Override
+            public void onTaskCompleted(DownloadTask task, int completed, int total) {
+                Launcher.this.frame.panel.setCurrentTask(Math.min(completed, total - 1));
+            }
+
+            @Override
+            public void onProgress(int progress) {
+                Launcher.this.frame.panel.setCurrentProgress(progress);
+            }
+        });
+    }
+
+    public void queueMod(DownloadScheduler scheduler, Mod mod, Set<String> queued) {
+        final String sha256 = mod.getSHA256();
+        if (sha256 == null) {
+            scheduler.submit(new DownloadTask(mod.getURL(), mod.getFile(this.instance), this.translator.translate("ui.downloading_mod", mod)));
+        } else if (!this.modStore.contains(sha256) && queued.add(sha256)) {
+            scheduler.submit(new DownloadTask(mod.getURL(), this.modStore.getBlob(sha256), this.translator.translate("ui.downloading_mod", mod), sha256));
+        }
+        if (mod.hasConfig()) {
+            for (ModConfig config : mod.getConfigs()) {
+                scheduler.submit(new DownloadTask(config.getURL(), new File(this.instance.getConfigDir(), config.getFile()), this.translator.translate("ui.downloading_config", config.getFile(), mod)));
+            }
+        }
+    }
+
+    public Exception finishDownloads(DownloadScheduler scheduler, List<Mod> modList) {
+        final List<DownloadTask> tasks;
+        try {
+            tasks = scheduler.await();
+        } catch (InterruptedException e) {
+            return e;
+        }
+
+        Exception exception = null;
+        for (DownloadTask task : tasks) {
+            if (task.isFailed()) {
+                System.out.println("Failed to download " + task.getURL() + ": " + task.getException());
+                if (exception == null && !task.isOptional()) {
+                    exception = task.getException();
+                }
+            }
+        }
+        if (exception != null) {
+            return exception;
+        }
+        for (Mod mod : modList) {
+            if (mod.getSHA256() != null) {
+                try {
+                    final File file = mod.getFile(this.instance);
+                    this.modStore.link(mod.getSHA256(), file);
+                    this.hashIndex.put(this.modStore.getBlob(mod.getSHA256()), mod.getSHA256());
+                    this.hashIndex.put(file, mod.getSHA256());
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return e;
+                }
+            }
         }
-        this.frame.panel.currentTaskName = this.translator.translate("ui.launching_mc");
-        this.frame.panel.currentTask++;
         return null;
     }
 
+    public void reportSyncResult(Exception e) {
+        if (e != null) {
+            this.frame.panel.setCurrentTaskName(e.getClass().getName());
+        } else {
+            this.frame.panel.setCurrentTaskName(this.translator.translate("ui.launching_mc"));
+            this.frame.panel.setCurrentTask(this.frame.panel.getTaskCount());
+        }
+    }
+
     public Exception downloadFile(String string, File file) {
+        return this.downloadFile(new DownloadTask(string, file, file.getName()));
+    }
+
+    public Exception downloadFile(DownloadTask task) {
+        final String hash = task.getHash();
+        final File partFile = this.getPartFile(task);
         try {
-            this.frame.panel.currentProgress = 0;
-            final URL url = new URL(string);
-            final HttpURLConnection connection = (HttpURLConnection) (url.openConnection());
-            final long contentLength = connection.getContentLength();
-            final InputStream inputStream = new BufferedInputStream(connection.getInputStream());
-            final OutputStream outputStream = new FileOutputStream(file);
-            final OutputStream bufferedOutputStream = new BufferedOutputStream(outputStream, 1024);
-            final byte[] data = new byte[1024];
-            long downloaded = 0;
-            int i;
-            while ((i = inputStream.read(data, 0, 1024)) >= 0) {
-                downloaded += i;
-                this.frame.panel.currentProgress = (int) ((((double) downloaded) / ((double) contentLength)) * 100.0D);
-                bufferedOutputStream.write(data, 0, i);
-            }
-            bufferedOutputStream.close();
-            inputStream.close();
-            this.frame.panel.currentProgress = 0;
+            long downloaded = hash != null && partFile.exists() ? partFile.length() : 0;
+            final boolean resumed = downloaded > 0;
+            final HttpURLConnection connection = (HttpURLConnection) (new URL(task.getURL()).openConnection());
+            if (resumed) {
+                connection.setRequestProperty("Range", "bytes=" + downloaded + "-");
+            }
+            final int responseCode = connection.getResponseCode();
+            final boolean complete = resumed && responseCode == 416;
+            if (!complete && responseCode >= 400) {
+                connection.disconnect();
+                throw new IOException("Server returned HTTP " + responseCode + " for " + task.getURL());
+            }
+            if (!complete && responseCode != HttpURLConnection.HTTP_PARTIAL) {
+                downloaded = 0;
+            }
+
+            final MessageDigest digest = hash != null ? Transfer.newDigest(task.getHashAlgorithm()) : null;
+            try (FileChannel channel = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+                if (downloaded > 0) {
+                    Transfer.digest(channel, downloaded, digest);
+                } else {
+                    channel.truncate(0);
+                }
+                if (complete) {
+                    connection.disconnect();
+                } else {
+                    final long offset = downloaded;
+                    final long contentLength = connection.getContentLengthLong() < 0 ? -1 : offset + connection.getContentLengthLong();
+                    try (ReadableByteChannel source = Channels.newChannel(connection.getInputStream())) {
+                        Transfer.copy(source, channel, digest, transferred -> task.setProgress(offset + transferred, contentLength));
+                    }
+                }
+            }
+
+            if (digest != null) {
+                final String obtained_hash = Transfer.toHex(digest.digest());
+                if (!task.matchesHash(obtained_hash)) {
+                    Files.deleteIfExists(partFile.toPath());
+                    if (resumed) {
+                        System.out.println("Resumed download of " + task.getURL() + " is corrupt, restarting");
+                        return this.downloadFile(task);
+                    }
+                    throw new IOException("Checksum mismatch for " + task.getURL() + ": expected " + hash + ", got " + obtained_hash);
+                }
+            }
+
+            final File parent = task.getFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Failed to create " + parent);
+            }
+            try {
+                Files.move(partFile.toPath(), task.getFile().toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partFile.toPath(), task.getFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
             return null;
         } catch (IOException e) {
             e.printStackTrace();
@@ -284,6 +708,15 @@ public enum Launcher {
         }
     }
 
+    public File getPartFile(DownloadTask task) {
+        final File downloadsDir = new File(this.cacheDir, "downloads");
+        if (!downloadsDir.exists()) {
+            downloadsDir.mkdirs();
+        }
+        final String key = task.getHash() != null ? task.getHash().toLowerCase(Locale.ENGLISH) : Hashing.sha256().hashString(task.getURL(), Charsets.UTF_8).toString();
+        return new File(downloadsDir, key + ".part");
+    }
+
     public File getDataFolder() {
         final String osName = System.getProperty("os.name").toLowerCase();
         if (osName.contains("win")) {
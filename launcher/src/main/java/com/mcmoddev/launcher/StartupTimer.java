@@ -0,0 +1,36 @@
+package com.mcmoddev.launcher;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class StartupTimer {
+    private final long start = System.nanoTime();
+
+    public void run(String stage, Runnable runnable) {
+        final long stageStart = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            this.record(stage, stageStart);
+        }
+    }
+
+    public <T> CompletableFuture<T> track(String stage, CompletableFuture<T> future) {
+        final long stageStart = System.nanoTime();
+        return future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                System.out.println("Startup stage " + stage + " failed: " + throwable);
+            }
+            this.record(stage, stageStart);
+        });
+    }
+
+    public void report(String milestone) {
+        System.out.println("Startup: " + milestone + " after " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.start) + "ms");
+    }
+
+    private void record(String stage, long stageStart) {
+        final long now = System.nanoTime();
+        System.out.println("Startup: " + stage + " took " + TimeUnit.NANOSECONDS.toMillis(now - stageStart) + "ms (at " + TimeUnit.NANOSECONDS.toMillis(now - this.start) + "ms)");
+    }
+}
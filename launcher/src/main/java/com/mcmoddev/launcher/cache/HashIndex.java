@@ -0,0 +1,95 @@
+package com.mcmoddev.launcher.cache;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class HashIndex {
+    private final File indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    public HashIndex(File cacheDir) {
+        this.indexFile = new File(cacheDir, "hashes.json");
+
+        if (this.indexFile.exists()) {
+            try (Reader reader = new FileReader(this.indexFile)) {
+                final JsonObject object = new JsonParser().parse(reader).getAsJsonObject();
+                for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                    final JsonObject value = entry.getValue().getAsJsonObject();
+                    this.entries.put(entry.getKey(), new Entry(value.get("size").getAsLong(), value.get("mtime").getAsLong(), value.get("sha256").getAsString()));
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public String getSHA256(File file) throws IOException {
+        final String path = file.getAbsolutePath();
+        final long size = file.length();
+        final long mtime = file.lastModified();
+        final Entry entry = this.entries.get(path);
+        if (entry != null && entry.size == size && entry.mtime == mtime) {
+            return entry.sha256;
+        }
+        final String sha256 = Files.asByteSource(file).hash(Hashing.sha256()).toString();
+        this.entries.put(path, new Entry(size, mtime, sha256));
+        this.dirty = true;
+        return sha256;
+    }
+
+    public void put(File file, String sha256) {
+        this.entries.put(file.getAbsolutePath(), new Entry(file.length(), file.lastModified(), sha256));
+        this.dirty = true;
+    }
+
+    public void save() {
+        if (!this.dirty) {
+            return;
+        }
+        this.dirty = false;
+        final JsonObject object = new JsonObject();
+        for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            if (!new File(entry.getKey()).isFile()) {
+                this.entries.remove(entry.getKey());
+                continue;
+            }
+            final JsonObject value = new JsonObject();
+            value.addProperty("size", entry.getValue().size);
+            value.addProperty("mtime", entry.getValue().mtime);
+            value.addProperty("sha256", entry.getValue().sha256);
+            object.add(entry.getKey(), value);
+        }
+        try {
+            FileUtils.writeStringToFile(this.indexFile, new GsonBuilder().create().toJson(object), Charsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long mtime;
+        private final String sha256;
+
+        private Entry(long size, long mtime, String sha256) {
+            this.size = size;
+            this.mtime = mtime;
+            this.sha256 = sha256;
+        }
+    }
+}
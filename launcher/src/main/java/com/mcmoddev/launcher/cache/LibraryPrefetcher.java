@@ -0,0 +1,260 @@
+package com.mcmoddev.launcher.cache;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mcmoddev.launcher.download.DownloadScheduler;
+import com.mcmoddev.launcher.download.DownloadTask;
+import com.mcmoddev.launcher.download.IDownloader;
+import com.mcmoddev.launcher.resource.lang.Translator;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class LibraryPrefetcher {
+    public static final String VERSION_MANIFEST_URL = "https://launchermeta.mojang.com/mc/game/version_manifest.json";
+    public static final String LIBRARIES_URL = "https://libraries.minecraft.net/";
+    public static final String RESOURCES_URL = "https://resources.download.minecraft.net/";
+    public static final String FORGE_MAVEN_URL = "https://maven.minecraftforge.net/";
+
+    private final File versionsDir;
+    private final File libsDir;
+    private final File indexesDir;
+    private final File objectsDir;
+    private final File layoutFile;
+    private final IDownloader downloader;
+    private final Translator translator;
+    private final Set<File> queued = new HashSet<>();
+    private volatile boolean cancelled;
+
+    public LibraryPrefetcher(File cacheDir, IDownloader downloader, Translator translator) {
+        this.versionsDir = new File(cacheDir, "versions");
+        this.libsDir = new File(cacheDir, "libs");
+        this.indexesDir = new File(cacheDir, "assets" + File.separator + "indexes");
+        this.objectsDir = new File(cacheDir, "assets" + File.separator + "objects");
+        this.layoutFile = new File(this.libsDir, ".layout-verified");
+        this.downloader = downloader;
+        this.translator = translator;
+    }
+
+    public void prefetch(String gameVersion, String forgeVersion, DownloadScheduler scheduler) throws IOException {
+        final JsonObject version = this.loadVersion(gameVersion);
+        if (version.has("downloads") && version.getAsJsonObject("downloads").has("client")) {
+            final JsonObject client = version.getAsJsonObject("downloads").getAsJsonObject("client");
+            this.queue(scheduler, client, new File(this.versionsDir, gameVersion + File.separator + gameVersion + ".jar"), gameVersion);
+        }
+        for (JsonElement element : version.getAsJsonArray("libraries")) {
+            this.checkCancelled();
+            this.queueLibrary(scheduler, element.getAsJsonObject());
+        }
+
+        if (forgeVersion != null) {
+            for (JsonElement element : this.loadForgeVersion(forgeVersion).getAsJsonArray("libraries")) {
+                this.checkCancelled();
+                this.queueForgeLibrary(scheduler, element.getAsJsonObject());
+            }
+        }
+
+        final JsonObject assetIndex = version.getAsJsonObject("assetIndex");
+        final File indexFile = new File(this.indexesDir, assetIndex.get("id").getAsString() + ".json");
+        this.fetch(assetIndex.get("url").getAsString(), indexFile, assetIndex.get("sha1").getAsString());
+        for (Map.Entry<String, JsonElement> entry : this.readJson(indexFile).getAsJsonObject("objects").entrySet()) {
+            this.checkCancelled();
+            final JsonObject object = entry.getValue().getAsJsonObject();
+            final String hash = object.get("hash").getAsString();
+            final String path = hash.substring(0, 2) + "/" + hash;
+            this.queue(scheduler, LibraryPrefetcher.RESOURCES_URL + path, new File(this.objectsDir, path), hash, object.get("size").getAsLong(),
+                    this.translator.translate("ui.downloading_asset", entry.getKey()));
+        }
+    }
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isLayoutVerified() {
+        return this.layoutFile.isFile();
+    }
+
+    public boolean verifyLayout(String gameVersion) {
+        if (this.isLayoutVerified()) {
+            return true;
+        }
+        final File versionFile = new File(this.versionsDir, gameVersion + File.separator + gameVersion + ".json");
+        if (!versionFile.isFile()) {
+            return false;
+        }
+        try {
+            final JsonObject version = this.readJson(versionFile);
+            if (!new File(this.indexesDir, version.getAsJsonObject("assetIndex").get("id").getAsString() + ".json").isFile()) {
+                return false;
+            }
+            for (JsonElement element : version.getAsJsonArray("libraries")) {
+                final JsonObject library = element.getAsJsonObject();
+                if (library.has("downloads") && library.getAsJsonObject("downloads").has("artifact") && this.isAllowed(library)) {
+                    if (!new File(this.libsDir, library.getAsJsonObject("downloads").getAsJsonObject("artifact").get("path").getAsString()).isFile()) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+            if (!this.libsDir.exists() && !this.libsDir.mkdirs()) {
+                return false;
+            }
+            return this.layoutFile.createNewFile() || this.layoutFile.isFile();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private JsonObject loadVersion(String gameVersion) throws IOException {
+        final File versionFile = new File(this.versionsDir, gameVersion + File.separator + gameVersion + ".json");
+        if (!versionFile.isFile()) {
+            final File manifestFile = new File(this.versionsDir, "version_manifest.json");
+            manifestFile.delete();
+            this.fetch(LibraryPrefetcher.VERSION_MANIFEST_URL, manifestFile, null);
+            for (JsonElement element : this.readJson(manifestFile).getAsJsonArray("versions")) {
+                final JsonObject object = element.getAsJsonObject();
+                if (object.get("id").getAsString().equals(gameVersion)) {
+                    this.fetch(object.get("url").getAsString(), versionFile, object.has("sha1") ? object.get("sha1").getAsString() : null);
+                    break;
+                }
+            }
+            if (!versionFile.isFile()) {
+                throw new IOException("Unknown Minecraft version " + gameVersion);
+            }
+        }
+        return this.readJson(versionFile);
+    }
+
+    private JsonObject loadForgeVersion(String forgeVersion) throws IOException {
+        final String path = "net/minecraftforge/forge/" + forgeVersion + "/forge-" + forgeVersion + "-universal.jar";
+        final File universalFile = new File(this.libsDir, path);
+        this.fetch(LibraryPrefetcher.FORGE_MAVEN_URL + path, universalFile, null);
+        try (ZipFile zipFile = new ZipFile(universalFile)) {
+            final ZipEntry entry = zipFile.getEntry("version.json");
+            if (entry == null) {
+                throw new IOException("No version.json in " + universalFile);
+            }
+            try (Reader reader = new InputStreamReader(zipFile.getInputStream(entry))) {
+                return new JsonParser().parse(reader).getAsJsonObject();
+            }
+        }
+    }
+
+    private void queueLibrary(DownloadScheduler scheduler, JsonObject library) {
+        if (!library.has("downloads") || !this.isAllowed(library)) {
+            return;
+        }
+        final JsonObject downloads = library.getAsJsonObject("downloads");
+        final String name = library.get("name").getAsString();
+        if (downloads.has("artifact")) {
+            final JsonObject artifact = downloads.getAsJsonObject("artifact");
+            this.queue(scheduler, artifact, new File(this.libsDir, artifact.get("path").getAsString()), name);
+        }
+        if (library.has("natives") && downloads.has("classifiers")) {
+            final JsonElement classifier = library.getAsJsonObject("natives").get(LibraryPrefetcher.getOSName());
+            if (classifier != null) {
+                final String key = classifier.getAsString().replace("${arch}", System.getProperty("os.arch").contains("64") ? "64" : "32");
+                final JsonObject artifact = downloads.getAsJsonObject("classifiers").getAsJsonObject(key);
+                if (artifact != null) {
+                    this.queue(scheduler, artifact, new File(this.libsDir, artifact.get("path").getAsString()), name);
+                }
+            }
+        }
+    }
+
+    private void queueForgeLibrary(DownloadScheduler scheduler, JsonObject library) {
+        final String name = library.get("name").getAsString();
+        final String[] parts = name.split(":");
+        if (parts.length < 3 || name.startsWith("net.minecraftforge:forge:") || !library.has("clientreq") || !library.get("clientreq").getAsBoolean()) {
+            return;
+        }
+        final String path = parts[0].replace('.', '/') + "/" + parts[1] + "/" + parts[2] + "/" + parts[1] + "-" + parts[2] + ".jar";
+        final String baseURL = library.has("url") ? library.get("url").getAsString() : LibraryPrefetcher.LIBRARIES_URL;
+        final List<String> checksums = new ArrayList<>();
+        if (library.has("checksums")) {
+            // Forge lists every valid hash of the library, not just the jar's
+            library.getAsJsonArray("checksums").forEach(checksum -> checksums.add(checksum.getAsString()));
+        }
+        this.queue(scheduler, (baseURL.endsWith("/") ? baseURL : baseURL + "/") + path, new File(this.libsDir, path), checksums.toArray(new String[0]), -1,
+                this.translator.translate("ui.downloading_library", name));
+    }
+
+    private void queue(DownloadScheduler scheduler, JsonObject artifact, File file, String name) {
+        this.queue(scheduler, artifact.get("url").getAsString(), file, artifact.get("sha1").getAsString(), artifact.get("size").getAsLong(),
+                this.translator.translate("ui.downloading_library", name));
+    }
+
+    private void queue(DownloadScheduler scheduler, String url, File file, String sha1, long size, String name) {
+        this.queue(scheduler, url, file, sha1 != null ? new String[] {sha1} : null, size, name);
+    }
+
+    private void queue(DownloadScheduler scheduler, String url, File file, String[] sha1, long size, String name) {
+        if (!this.queued.add(file) || (file.isFile() && (size < 0 || file.length() == size))) {
+            return;
+        }
+        scheduler.submit(new DownloadTask(url, file, name, sha1, "SHA-1", true));
+    }
+
+    private void fetch(String url, File file, String sha1) throws IOException {
+        if (file.isFile()) {
+            return;
+        }
+        this.checkCancelled();
+        final Exception e = this.downloader.download(new DownloadTask(url, file, file.getName(), sha1, "SHA-1", false));
+        if (e != null) {
+            throw new IOException("Failed to download " + url, e);
+        }
+    }
+
+    private void checkCancelled() throws InterruptedIOException {
+        if (this.cancelled) {
+            throw new InterruptedIOException("Prefetch cancelled");
+        }
+    }
+
+    private JsonObject readJson(File file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return new JsonParser().parse(reader).getAsJsonObject();
+        }
+    }
+
+    private boolean isAllowed(JsonObject library) {
+        if (!library.has("rules")) {
+            return true;
+        }
+        boolean allowed = false;
+        for (JsonElement element : library.getAsJsonArray("rules")) {
+            final JsonObject rule = element.getAsJsonObject();
+            if (!rule.has("os") || !rule.getAsJsonObject("os").has("name") || rule.getAsJsonObject("os").get("name").getAsString().equals(LibraryPrefetcher.getOSName())) {
+                allowed = rule.get("action").getAsString().equals("allow");
+            }
+        }
+        return allowed;
+    }
+
+    private static String getOSName() {
+        final String osName = System.getProperty("os.name").toLowerCase(Locale.ENGLISH);
+        if (osName.contains("win")) {
+            return "windows";
+        } else if (osName.contains("mac")) {
+            return "osx";
+        } else {
+            return "linux";
+        }
+    }
+}
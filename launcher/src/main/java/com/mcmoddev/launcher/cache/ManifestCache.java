@@ -0,0 +1,172 @@
+package com.mcmoddev.launcher.cache;
+
+import com.google.common.base.Charsets;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mcmoddev.launcher.mod.IManifestHandler;
+import com.mcmoddev.launcher.mod.Manifest;
+import com.mcmoddev.launcher.mod.ManifestDelta;
+import com.mcmoddev.launcher.mod.ManifestParser;
+import com.mcmoddev.launcher.mod.Mod;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ManifestCache {
+    public static final int CONNECT_TIMEOUT = 10000;
+    public static final int READ_TIMEOUT = 30000;
+    public static final long FRESH_TIME = 60000;
+
+    private final File manifestFile;
+    private final File metaFile;
+
+    private String url;
+    private String etag;
+    private String lastModified;
+    private Manifest manifest;
+    private long lastFetch;
+
+    public ManifestCache(File dir) {
+        this.manifestFile = new File(dir, "modpack.json");
+        this.metaFile = new File(dir, "modpack.meta.json");
+
+        if (this.metaFile.exists() && this.manifestFile.exists()) {
+            try (Reader reader = new FileReader(this.metaFile)) {
+                final JsonObject object = new JsonParser().parse(reader).getAsJsonObject();
+                this.url = object.get("url").getAsString();
+                this.etag = object.has("etag") ? object.get("etag").getAsString() : null;
+                this.lastModified = object.has("lastModified") ? object.get("lastModified").getAsString() : null;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public Manifest load(String url) throws IOException {
+        return this.load(url, mod -> {});
+    }
+
+    public synchronized Manifest load(String url, IManifestHandler handler) throws IOException {
+        final boolean hasSnapshot = url.equals(this.url) && this.manifestFile.exists();
+        if (hasSnapshot && this.manifest != null && System.currentTimeMillis() - this.lastFetch < ManifestCache.FRESH_TIME) {
+            this.manifest.replay(handler);
+            return this.manifest;
+        }
+        final AtomicInteger emitted = new AtomicInteger();
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(ManifestCache.CONNECT_TIMEOUT);
+            connection.setReadTimeout(ManifestCache.READ_TIMEOUT);
+            if (hasSnapshot) {
+                if (this.etag != null) {
+                    connection.setRequestProperty("If-None-Match", this.etag);
+                }
+                if (this.lastModified != null) {
+                    connection.setRequestProperty("If-Modified-Since", this.lastModified);
+                }
+            }
+            final int responseCode = connection.getResponseCode();
+            if (hasSnapshot && responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                connection.disconnect();
+                this.lastFetch = System.currentTimeMillis();
+                return this.loadSnapshot(handler);
+            } else if (responseCode != HttpURLConnection.HTTP_OK) {
+                connection.disconnect();
+                throw new IOException("Server returned HTTP " + responseCode + " for " + url);
+            }
+
+            final File tempFile = new File(this.manifestFile.getPath() + ".tmp");
+            final Manifest manifest = new Manifest();
+            try (InputStream stream = new TeeInputStream(connection.getInputStream(), new FileOutputStream(tempFile), true)) {
+                ManifestParser.parse(new InputStreamReader(stream, Charsets.UTF_8), this.collect(manifest, handler, emitted));
+                IOUtils.skip(stream, Long.MAX_VALUE);
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid modpack manifest from " + url, e);
+            }
+            Files.move(tempFile.toPath(), this.manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.manifest = manifest;
+            this.lastFetch = System.currentTimeMillis();
+            this.url = url;
+            this.etag = connection.getHeaderField("ETag");
+            this.lastModified = connection.getHeaderField("Last-Modified");
+            this.saveMeta();
+            return manifest;
+        } catch (IOException e) {
+            if (!hasSnapshot || emitted.get() > 0) {
+                throw e;
+            }
+            System.out.println("Failed to fetch modpack manifest (" + e + "), using last known snapshot");
+            return this.loadSnapshot(handler);
+        }
+    }
+
+    private Manifest loadSnapshot(IManifestHandler handler) throws IOException {
+        if (this.manifest == null) {
+            final Manifest manifest = new Manifest();
+            try (Reader reader = new InputStreamReader(new FileInputStream(this.manifestFile), Charsets.UTF_8)) {
+                ManifestParser.parse(reader, this.collect(manifest, handler, new AtomicInteger()));
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid modpack manifest " + this.manifestFile, e);
+            }
+            this.manifest = manifest;
+        } else {
+            this.manifest.replay(handler);
+        }
+        return this.manifest;
+    }
+
+    private IManifestHandler collect(Manifest manifest, IManifestHandler handler, AtomicInteger emitted) {
+        return new IManifestHandler() {
+            @Override
+            public void onRevision(String revision) {
+                manifest.onRevision(revision);
+                handler.onRevision(revision);
+            }
+
+            @Override
+            public void onMod(Mod mod) {
+                manifest.onMod(mod);
+                emitted.incrementAndGet();
+                handler.onMod(mod);
+            }
+
+            @Override
+            public void onDelta(ManifestDelta delta) {
+                manifest.onDelta(delta);
+                handler.onDelta(delta);
+            }
+        };
+    }
+
+    private void saveMeta() {
+        final JsonObject object = new JsonObject();
+        object.addProperty("url", this.url);
+        if (this.etag != null) {
+            object.addProperty("etag", this.etag);
+        }
+        if (this.lastModified != null) {
+            object.addProperty("lastModified", this.lastModified);
+        }
+        try {
+            FileUtils.writeStringToFile(this.metaFile, new GsonBuilder().setPrettyPrinting().create().toJson(object), Charsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mcmoddev.launcher.cache;
+
+import com.google.common.base.Charsets;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ModStore {
+    private final File storeDir;
+    private final File indexFile;
+    private final long maxSize;
+    private final HashIndex hashIndex;
+    private final Map<String, Long> lastUsed = new ConcurrentHashMap<>();
+
+    public ModStore(File cacheDir, long maxSize, HashIndex hashIndex) {
+        this.storeDir = new File(cacheDir, "mods");
+        this.indexFile = new File(this.storeDir, "index.json");
+        this.maxSize = maxSize;
+        this.hashIndex = hashIndex;
+
+        if (!this.storeDir.exists() && !this.storeDir.mkdirs()) {
+            throw new RuntimeException("Failed to create mod store dir");
+        }
+        if (this.indexFile.exists()) {
+            try (Reader reader = new FileReader(this.indexFile)) {
+                final JsonObject object = new JsonParser().parse(reader).getAsJsonObject();
+                for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                    this.lastUsed.put(entry.getKey(), entry.getValue().getAsLong());
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public File getBlob(String sha256) {
+        final String hash = sha256.toLowerCase(Locale.ENGLISH);
+        return new File(this.storeDir, hash.substring(0, 2) + File.separator + hash);
+    }
+
+    public boolean contains(String sha256) {
+        final File blob = this.getBlob(sha256);
+        if (!blob.isFile()) {
+            return false;
+        }
+        // Instances hardlink their jars to the blob, so a write to any of them changes the blob too
+        try {
+            if (this.hashIndex.getSHA256(blob).equalsIgnoreCase(sha256)) {
+                return true;
+            }
+            System.out.println("Cached mod " + blob.getName() + " is corrupt, downloading it again");
+            Files.deleteIfExists(blob.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public void link(String sha256, File target) throws IOException {
+        final Path blob = this.getBlob(sha256).toPath();
+        final Path path = target.toPath();
+        Files.deleteIfExists(path);
+        try {
+            Files.createLink(path, blob);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(blob, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        this.lastUsed.put(sha256.toLowerCase(Locale.ENGLISH), System.currentTimeMillis());
+    }
+
+    public void collectGarbage(Set<String> referenced) {
+        final File[] dirs = this.storeDir.listFiles(file -> file.isDirectory() && file.getName().length() == 2);
+        if (dirs == null) {
+            return;
+        }
+        final List<File> candidates = new ArrayList<>();
+        long size = 0;
+        for (File dir : dirs) {
+            final File[] blobs = dir.listFiles(File::isFile);
+            if (blobs == null) {
+                continue;
+            }
+            for (File blob : blobs) {
+                size += blob.length();
+                if (!referenced.contains(blob.getName()) && !this.isLinked(blob)) {
+                    candidates.add(blob);
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong(blob -> this.lastUsed.getOrDefault(blob.getName(), 0L)));
+        for (File blob : candidates) {
+            if (size <= this.maxSize) {
+                break;
+            }
+            final long length = blob.length();
+            if (blob.delete()) {
+                System.out.println("Evicting cached mod " + blob.getName());
+                this.lastUsed.remove(blob.getName());
+                size -= length;
+            }
+        }
+        this.save();
+    }
+
+    public void save() {
+        final JsonObject object = new JsonObject();
+        for (Map.Entry<String, Long> entry : this.lastUsed.entrySet()) {
+            object.addProperty(entry.getKey(), entry.getValue());
+        }
+        try {
+            FileUtils.writeStringToFile(this.indexFile, new GsonBuilder().create().toJson(object), Charsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private boolean isLinked(File blob) {
+        try {
+            return ((Number) Files.getAttribute(blob.toPath(), "unix:nlink")).intValue() > 1;
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return false;
+        }
+    }
+}
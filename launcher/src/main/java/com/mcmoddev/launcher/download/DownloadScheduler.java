@@ -0,0 +1,205 @@
+package com.mcmoddev.launcher.download;
+
+import com.mcmoddev.launcher.util.ProgressMonitor;
+
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DownloadScheduler {
+    private final ExecutorService executor;
+    private final int threads;
+    private final int maxHostConnections;
+    private final IDownloader downloader;
+    private final IDownloadListener listener;
+    private final ProgressMonitor progressMonitor;
+
+    private final Map<String, Deque<DownloadTask>> hostQueues = new LinkedHashMap<>();
+    private final Map<String, Integer> hostConnections = new HashMap<>();
+    private final List<DownloadTask> tasks = new ArrayList<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicLong progressSum = new AtomicLong();
+    private int running;
+    private boolean shutdown;
+
+    public DownloadScheduler(int threads, int maxHostConnections, IDownloader downloader, IDownloadListener listener) {
+        this(threads, maxHostConnections, Thread.NORM_PRIORITY, downloader, listener);
+    }
+
+    public DownloadScheduler(int threads, int maxHostConnections, int priority, IDownloader downloader, IDownloadListener listener) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.threads = Math.max(1, threads);
+        this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "Download Worker #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        });
+        this.maxHostConnections = Math.max(1, maxHostConnections);
+        this.downloader = downloader;
+        this.listener = listener;
+        this.progressMonitor = listener != null ? new ProgressMonitor(this::getProgress, listener::onProgress).start() : null;
+    }
+
+    public synchronized void submit(DownloadTask task) {
+        task.setScheduler(this);
+        this.tasks.add(task);
+        if (this.shutdown) {
+            this.cancel(task);
+            return;
+        }
+        this.hostQueues.computeIfAbsent(this.getHost(task), host -> new ArrayDeque<>()).add(task);
+        if (this.listener != null) {
+            this.listener.onTaskQueued(task, this.tasks.size());
+        }
+        this.dispatch();
+    }
+
+    public synchronized List<DownloadTask> await() throws InterruptedException {
+        while (this.completed.get() < this.tasks.size()) {
+            this.wait();
+        }
+        return new ArrayList<>(this.tasks);
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            this.shutdown = true;
+            for (Deque<DownloadTask> queue : this.hostQueues.values()) {
+                queue.forEach(this::cancel);
+            }
+            this.hostQueues.clear();
+            this.notifyAll();
+        }
+        if (this.progressMonitor != null) {
+            this.progressMonitor.stop();
+        }
+        final List<Runnable> dropped = this.executor.shutdownNow();
+        synchronized (this) {
+            for (Runnable runnable : dropped) {
+                if (runnable instanceof Dispatch) {
+                    final Dispatch dispatch = (Dispatch) runnable;
+                    this.cancel(dispatch.task);
+                    this.hostConnections.merge(dispatch.host, -1, Integer::sum);
+                    this.running--;
+                }
+            }
+            this.notifyAll();
+        }
+    }
+
+    public synchronized int getTaskCount() {
+        return this.tasks.size();
+    }
+
+    public int getCompletedCount() {
+        return this.completed.get();
+    }
+
+    public int getProgress() {
+        final int taskCount = this.getTaskCount();
+        return taskCount > 0 ? (int) (this.progressSum.get() / taskCount) : 0;
+    }
+
+    void onTaskProgress(int delta) {
+        this.progressSum.addAndGet(delta);
+    }
+
+    private void cancel(DownloadTask task) {
+        task.complete(new InterruptedIOException("Download cancelled"));
+        this.completed.incrementAndGet();
+    }
+
+    private void dispatch() {
+        boolean dispatched = true;
+        while (dispatched && !this.shutdown && this.running < this.threads) {
+            dispatched = false;
+            final List<Map.Entry<String, Deque<DownloadTask>>> served = new ArrayList<>();
+            final Iterator<Map.Entry<String, Deque<DownloadTask>>> iterator = this.hostQueues.entrySet().iterator();
+            while (iterator.hasNext() && this.running < this.threads) {
+                final Map.Entry<String, Deque<DownloadTask>> entry = iterator.next();
+                final int connections = this.hostConnections.getOrDefault(entry.getKey(), 0);
+                if (connections >= this.maxHostConnections) {
+                    continue;
+                }
+                final DownloadTask task = entry.getValue().poll();
+                iterator.remove();
+                served.add(entry);
+                this.hostConnections.put(entry.getKey(), connections + 1);
+                this.running++;
+                this.executor.execute(new Dispatch(entry.getKey(), task));
+                dispatched = true;
+            }
+            for (Map.Entry<String, Deque<DownloadTask>> entry : served) {
+                if (!entry.getValue().isEmpty()) {
+                    this.hostQueues.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void run(String host, DownloadTask task) {
+        Exception exception;
+        try {
+            if (this.listener != null) {
+                this.listener.onTaskStarted(task);
+            }
+            exception = this.downloader.download(task);
+        } catch (Exception e) {
+            exception = e;
+        }
+        try {
+            task.complete(exception);
+        } finally {
+            final int completed = this.completed.incrementAndGet();
+            try {
+                if (this.listener != null) {
+                    this.listener.onTaskCompleted(task, completed, this.getTaskCount());
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            synchronized (this) {
+                this.hostConnections.merge(host, -1, Integer::sum);
+                this.running--;
+                this.dispatch();
+                this.notifyAll();
+            }
+        }
+    }
+
+    private final class Dispatch implements Runnable {
+        private final String host;
+        private final DownloadTask task;
+
+        private Dispatch(String host, DownloadTask task) {
+            this.host = host;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            DownloadScheduler.this.run(this.host, this.task);
+        }
+    }
+
+    private String getHost(DownloadTask task) {
+        try {
+            return new URL(task.getURL()).getHost();
+        } catch (MalformedURLException e) {
+            return "";
+        }
+    }
+}
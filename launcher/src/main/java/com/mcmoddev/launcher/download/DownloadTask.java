@@ -0,0 +1,117 @@
+package com.mcmoddev.launcher.download;
+
+import java.io.File;
+
+public class DownloadTask {
+    private final String url;
+    private final File file;
+    private final String name;
+    private final String[] hashes;
+    private final String hashAlgorithm;
+    private final boolean optional;
+
+    private DownloadScheduler scheduler;
+    private volatile int progress;
+    private volatile boolean done;
+    private volatile Exception exception;
+
+    public DownloadTask(String url, File file, String name) {
+        this(url, file, name, null);
+    }
+
+    public DownloadTask(String url, File file, String name, String sha256) {
+        this(url, file, name, sha256, "SHA-256", false);
+    }
+
+    public DownloadTask(String url, File file, String name, String hash, String hashAlgorithm, boolean optional) {
+        this(url, file, name, hash != null ? new String[] {hash} : null, hashAlgorithm, optional);
+    }
+
+    public DownloadTask(String url, File file, String name, String[] hashes, String hashAlgorithm, boolean optional) {
+        this.url = url;
+        this.file = file;
+        this.name = name;
+        this.hashes = hashes != null && hashes.length > 0 ? hashes : null;
+        this.hashAlgorithm = hashAlgorithm;
+        this.optional = optional;
+    }
+
+    public String getURL() {
+        return url;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHash() {
+        return hashes != null ? hashes[0] : null;
+    }
+
+    public boolean matchesHash(String hash) {
+        if (this.hashes != null) {
+            for (String expected : this.hashes) {
+                if (expected.equalsIgnoreCase(hash)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public String getHashAlgorithm() {
+        return hashAlgorithm;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public boolean isFailed() {
+        return exception != null;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+
+    public void setProgress(long downloaded, long contentLength) {
+        final int progress = contentLength > 0 ? (int) Math.min(100, downloaded * 100 / contentLength) : 0;
+        if (progress != this.progress) {
+            final int previous = this.progress;
+            this.progress = progress;
+            if (this.scheduler != null) {
+                this.scheduler.onTaskProgress(progress - previous);
+            }
+        }
+    }
+
+    void setScheduler(DownloadScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    void complete(Exception exception) {
+        this.exception = exception;
+        if (exception == null) {
+            this.setProgress(1, 1);
+        }
+        this.done = true;
+    }
+
+    @Override
+    public String toString() {
+        return this.getName();
+    }
+}
@@ -0,0 +1,11 @@
+package com.mcmoddev.launcher.download;
+
+public interface IDownloadListener {
+    void onTaskQueued(DownloadTask task, int total);
+
+    void onTaskStarted(DownloadTask task);
+
+    void onTaskCompleted(DownloadTask task, int completed, int total);
+
+    void onProgress(int progress);
+}
@@ -0,0 +1,5 @@
+package com.mcmoddev.launcher.download;
+
+public interface IDownloader {
+    Exception download(DownloadTask task);
+}
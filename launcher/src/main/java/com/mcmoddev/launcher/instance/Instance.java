@@ -0,0 +1,112 @@
+package com.mcmoddev.launcher.instance;
+
+import com.google.gson.JsonObject;
+
+import java.io.File;
+
+public class Instance {
+    public static final String DEFAULT_NAME = "default";
+    public static final String DEFAULT_GAME_VERSION = "1.12.2";
+    public static final String DEFAULT_FORGE_VERSION = "1.12.2-14.23.2.2625";
+    public static final String DEFAULT_URL = "https://raw.githubusercontent.com/MinecraftModDevelopment/MMD-Launcher/gh-pages/modpack.json";
+
+    private final String name;
+    private final File dir;
+    private final String gameVersion;
+    private final String forgeVersion;
+    private final String url;
+    private final String jvmProfile;
+    private final int maxMemory;
+
+    public Instance(String name, File dir, String gameVersion, String forgeVersion, String url, String jvmProfile, int maxMemory) {
+        this.name = name;
+        this.dir = dir;
+        this.gameVersion = gameVersion;
+        this.forgeVersion = forgeVersion;
+        this.url = url;
+        this.jvmProfile = jvmProfile;
+        this.maxMemory = maxMemory;
+    }
+
+    public Instance(String name, JsonObject object, File dataDir) {
+        this(name,
+                object.has("dir") ? Instance.resolveDir(dataDir, object.get("dir").getAsString()) : new File(dataDir, "instances" + File.separator + name),
+                object.has("gameVersion") ? object.get("gameVersion").getAsString() : Instance.DEFAULT_GAME_VERSION,
+                object.has("forgeVersion") ? object.get("forgeVersion").getAsString() : Instance.DEFAULT_FORGE_VERSION,
+                Instance.getURL(name, object),
+                object.has("jvmProfile") ? object.get("jvmProfile").getAsString() : "auto",
+                object.has("maxMemory") ? object.get("maxMemory").getAsInt() : 0);
+    }
+
+    private static String getURL(String name, JsonObject object) {
+        if (object.has("url") && object.get("url").isJsonPrimitive()) {
+            return object.get("url").getAsString();
+        } else if (name.equals(Instance.DEFAULT_NAME)) {
+            return Instance.DEFAULT_URL;
+        }
+        // Syncing another instance against the default pack would delete its mods, so this has to be explicit
+        throw new IllegalArgumentException("Instance " + name + " has no modpack url");
+    }
+
+    private static File resolveDir(File dataDir, String path) {
+        final File dir = new File(path);
+        return dir.isAbsolute() ? dir : new File(dataDir, path);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    public String getGameVersion() {
+        return gameVersion;
+    }
+
+    public String getForgeVersion() {
+        return forgeVersion;
+    }
+
+    public String getURL() {
+        return url;
+    }
+
+    public String getJvmProfile() {
+        return jvmProfile;
+    }
+
+    public int getMaxMemory() {
+        return maxMemory;
+    }
+
+    public File getModsDir() {
+        return new File(this.dir, "mods");
+    }
+
+    public File getCoreModsDir() {
+        return new File(this.getModsDir(), this.gameVersion);
+    }
+
+    public File getConfigDir() {
+        return new File(this.dir, "config");
+    }
+
+    public File getLogsDir() {
+        return new File(this.dir, "logs");
+    }
+
+    public void createDirs() {
+        for (File dir : new File[] { this.getModsDir(), this.getCoreModsDir(), this.getConfigDir() }) {
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.getName();
+    }
+}
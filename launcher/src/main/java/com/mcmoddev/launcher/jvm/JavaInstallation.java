@@ -0,0 +1,117 @@
+package com.mcmoddev.launcher.jvm;
+
+import com.google.common.base.Charsets;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class JavaInstallation {
+    public static final int DEFAULT_VERSION = 8;
+    public static final long DEFAULT_MEMORY = 4L * 1024 * 1024 * 1024;
+
+    private static final Pattern VERSION_PATTERN = Pattern.compile("version \"([^\"]+)\"");
+    private static final Map<File, JavaInstallation> INSTALLATIONS = new ConcurrentHashMap<>();
+
+    private final File javaHome;
+    private final File executable;
+    private final int version;
+    private final Map<String, Boolean> supportedOptions = new ConcurrentHashMap<>();
+
+    private JavaInstallation(File javaHome, File executable) {
+        this.javaHome = javaHome;
+        this.executable = executable;
+        this.version = this.detectVersion();
+    }
+
+    public static JavaInstallation get(File javaHome, File executable) {
+        return JavaInstallation.INSTALLATIONS.computeIfAbsent(javaHome, home -> new JavaInstallation(home, executable));
+    }
+
+    public File getJavaHome() {
+        return this.javaHome;
+    }
+
+    public int getVersion() {
+        return this.version;
+    }
+
+    public boolean supports(String... options) {
+        return this.supportedOptions.computeIfAbsent(String.join(" ", options), key -> {
+            final String[] command = new String[options.length + 2];
+            command[0] = this.executable.getAbsolutePath();
+            System.arraycopy(options, 0, command, 1, options.length);
+            command[command.length - 1] = "-version";
+            try {
+                final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+                process.getInputStream().close();
+                return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+    }
+
+    private int detectVersion() {
+        final File release = new File(this.javaHome, "release");
+        if (release.isFile()) {
+            try {
+                for (String line : Files.readAllLines(release.toPath(), Charsets.UTF_8)) {
+                    if (line.startsWith("JAVA_VERSION=")) {
+                        return JavaInstallation.parseVersion(line.substring("JAVA_VERSION=".length()).replace("\"", ""));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+
+        try {
+            final Process process = new ProcessBuilder(this.executable.getAbsolutePath(), "-version").redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final Matcher matcher = JavaInstallation.VERSION_PATTERN.matcher(line);
+                    if (matcher.find()) {
+                        return JavaInstallation.parseVersion(matcher.group(1));
+                    }
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+        }
+        System.out.println("Could not detect the Java version of " + this.javaHome + ", assuming " + JavaInstallation.DEFAULT_VERSION);
+        return JavaInstallation.DEFAULT_VERSION;
+    }
+
+    public static int parseVersion(String version) {
+        String major = version.startsWith("1.") ? version.substring(2) : version;
+        for (int i = 0; i < major.length(); i++) {
+            if (!Character.isDigit(major.charAt(i))) {
+                major = major.substring(0, i);
+                break;
+            }
+        }
+        return Integer.parseInt(major);
+    }
+
+    public static long getPhysicalMemory() {
+        final OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            final long memory = ((com.sun.management.OperatingSystemMXBean) bean).getTotalPhysicalMemorySize();
+            if (memory > 0) {
+                return memory;
+            }
+        }
+        return JavaInstallation.DEFAULT_MEMORY;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mcmoddev.launcher.jvm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+public enum JvmProfile {
+    AUTO,
+    G1,
+    ZGC,
+    SHENANDOAH,
+    CUSTOM;
+
+    public static final long MIN_HEAP = 2048;
+    public static final long MAX_HEAP = 8192;
+    public static final long HEAP_STEP = 512;
+
+    public static JvmProfile fromName(String name) {
+        try {
+            return JvmProfile.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown JVM profile " + name + ", using auto");
+            return JvmProfile.AUTO;
+        }
+    }
+
+    public JvmProfile resolve(JavaInstallation java) {
+        switch (this) {
+            case AUTO:
+                return java.getVersion() >= 21 ? JvmProfile.ZGC : JvmProfile.G1;
+            case ZGC:
+                if (java.getVersion() < 11 || (java.getVersion() < 15 && !java.supports("-XX:+UnlockExperimentalVMOptions", "-XX:+UseZGC"))) {
+                    System.out.println("ZGC is not available on Java " + java.getVersion() + ", using G1");
+                    return JvmProfile.G1;
+                }
+                return this;
+            case SHENANDOAH:
+                if (!java.supports("-XX:+UnlockExperimentalVMOptions", "-XX:+UseShenandoahGC")) {
+                    System.out.println("Shenandoah is not available in " + java.getJavaHome() + ", using G1");
+                    return JvmProfile.G1;
+                }
+                return this;
+            default:
+                return this;
+        }
+    }
+
+    public List<String> getArguments(JavaInstallation java, long maxMemory, List<String> extraArguments) {
+        final JvmProfile profile = this.resolve(java);
+        if (profile == JvmProfile.CUSTOM) {
+            return new ArrayList<>(extraArguments);
+        }
+
+        final long heap = maxMemory > 0 ? maxMemory : JvmProfile.getDefaultHeap(JavaInstallation.getPhysicalMemory());
+        final List<String> arguments = new ArrayList<>();
+        arguments.add("-Xmx" + heap + "M");
+        switch (profile) {
+            case ZGC:
+                arguments.add("-Xms" + heap / 2 + "M");
+                if (java.getVersion() < 15) {
+                    arguments.add("-XX:+UnlockExperimentalVMOptions");
+                }
+                arguments.add("-XX:+UseZGC");
+                if (java.getVersion() >= 21 && java.getVersion() < 23) {
+                    arguments.add("-XX:+ZGenerational");
+                }
+                break;
+            case SHENANDOAH:
+                arguments.add("-Xms" + heap / 2 + "M");
+                if (java.getVersion() < 15) {
+                    arguments.add("-XX:+UnlockExperimentalVMOptions");
+                }
+                arguments.add("-XX:+UseShenandoahGC");
+                break;
+            default:
+                arguments.add("-Xms" + heap + "M");
+                arguments.add("-XX:+UseG1GC");
+                arguments.add("-XX:MaxGCPauseMillis=50");
+                arguments.add("-XX:G1HeapRegionSize=" + (heap >= 6144 ? 16 : 8) + "M");
+                arguments.add("-XX:+ParallelRefProcEnabled");
+                break;
+        }
+        arguments.add("-XX:+DisableExplicitGC");
+        arguments.addAll(extraArguments);
+        return Collections.unmodifiableList(arguments);
+    }
+
+    public static long getDefaultHeap(long physicalMemory) {
+        final long half = physicalMemory / 2 / (1024 * 1024);
+        return Math.max(JvmProfile.MIN_HEAP, Math.min(JvmProfile.MAX_HEAP, half / JvmProfile.HEAP_STEP * JvmProfile.HEAP_STEP));
+    }
+}
@@ -0,0 +1,173 @@
+package com.mcmoddev.launcher.log;
+
+import com.google.common.base.Charsets;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+public class ProcessLogger {
+    public static final int BUFFER_SIZE = 8192;
+    public static final long MAX_LOG_SIZE = 16L * 1024 * 1024;
+    public static final int MAX_ARCHIVES = 10;
+    public static final String LOG_NAME = "game-output";
+
+    private final File logsDir;
+    private final File latestFile;
+    private final BlockingQueue<Line> buffer = new ArrayBlockingQueue<>(ProcessLogger.BUFFER_SIZE);
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<Thread> readers = new ArrayList<>();
+
+    private Thread writer;
+    private volatile boolean finished;
+
+    public ProcessLogger(File logsDir) {
+        this.logsDir = logsDir;
+        this.latestFile = new File(logsDir, ProcessLogger.LOG_NAME + ".log");
+    }
+
+    public void attach(Process process) throws IOException {
+        if (!this.logsDir.exists() && !this.logsDir.mkdirs()) {
+            throw new IOException("Failed to create " + this.logsDir);
+        }
+        if (this.latestFile.exists()) {
+            this.archive();
+        }
+
+        this.readers.add(this.startReader(process.getInputStream(), false, "Minecraft stdout"));
+        this.readers.add(this.startReader(process.getErrorStream(), true, "Minecraft stderr"));
+        this.writer = new Thread(this::write, "Minecraft Log Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void waitFor() throws InterruptedException {
+        for (Thread reader : this.readers) {
+            reader.join();
+        }
+        this.finished = true;
+        if (this.writer != null) {
+            this.writer.join();
+        }
+        if (this.dropped.get() > 0) {
+            System.out.println("Dropped " + this.dropped.get() + " lines of game output");
+        }
+    }
+
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    private Thread startReader(InputStream stream, boolean error, String name) {
+        final Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+                String text;
+                while ((text = reader.readLine()) != null) {
+                    if (!this.buffer.offer(new Line(error, text))) {
+                        this.dropped.incrementAndGet();
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void write() {
+        final List<Line> batch = new ArrayList<>();
+        long reportedDropped = 0;
+        long size = 0;
+        Writer output = null;
+        try {
+            output = this.openLatest();
+            while (!this.finished || !this.buffer.isEmpty()) {
+                final Line first = this.buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                this.buffer.drainTo(batch);
+
+                final long dropped = this.dropped.get();
+                if (dropped != reportedDropped) {
+                    batch.add(0, new Line(true, "[Launcher] Log buffer full, dropped " + (dropped - reportedDropped) + " lines"));
+                    reportedDropped = dropped;
+                }
+                for (Line line : batch) {
+                    (line.error ? System.err : System.out).println(line.text);
+                    output.write(line.text);
+                    output.write(System.lineSeparator());
+                    size += line.text.length() + 1;
+                }
+                batch.clear();
+                output.flush();
+
+                if (size >= ProcessLogger.MAX_LOG_SIZE) {
+                    output.close();
+                    this.archive();
+                    output = this.openLatest();
+                    size = 0;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (output != null) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private Writer openLatest() throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.latestFile), Charsets.UTF_8));
+    }
+
+    private void archive() throws IOException {
+        final String date = new SimpleDateFormat("yyyy-MM-dd-HHmmss").format(new Date(this.latestFile.lastModified()));
+        File archive = new File(this.logsDir, ProcessLogger.LOG_NAME + "-" + date + ".log.gz");
+        for (int i = 1; archive.exists(); i++) {
+            archive = new File(this.logsDir, ProcessLogger.LOG_NAME + "-" + date + "-" + i + ".log.gz");
+        }
+        try (OutputStream output = new GZIPOutputStream(new FileOutputStream(archive))) {
+            Files.copy(this.latestFile.toPath(), output);
+        }
+        Files.delete(this.latestFile.toPath());
+
+        final File[] archives = this.logsDir.listFiles((dir, name) -> name.startsWith(ProcessLogger.LOG_NAME + "-") && name.endsWith(".log.gz"));
+        if (archives != null && archives.length > ProcessLogger.MAX_ARCHIVES) {
+            Arrays.sort(archives, Comparator.comparingLong(File::lastModified));
+            for (int i = 0; i < archives.length - ProcessLogger.MAX_ARCHIVES; i++) {
+                archives[i].delete();
+            }
+        }
+    }
+
+    private static class Line {
+        private final boolean error;
+        private final String text;
+
+        private Line(boolean error, String text) {
+            this.error = error;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.mcmoddev.launcher.mod;
+
+public interface IManifestHandler {
+    void onMod(Mod mod);
+
+    default void onRevision(String revision) {
+        // Unused
+    }
+
+    default void onDelta(ManifestDelta delta) {
+        // Unused
+    }
+}
@@ -0,0 +1,89 @@
+package com.mcmoddev.launcher.mod;
+
+import com.google.common.base.Charsets;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mcmoddev.launcher.instance.Instance;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class InstalledPack {
+    private final Instance instance;
+    private final File baseDir;
+    private final File file;
+
+    private String revision;
+    private final Map<String, String> files = new HashMap<>();
+
+    public InstalledPack(Instance instance) {
+        this.instance = instance;
+        this.baseDir = instance.getDir().getAbsoluteFile();
+        this.file = new File(this.baseDir, "pack.json");
+
+        if (this.file.exists()) {
+            try (Reader reader = new FileReader(this.file)) {
+                final JsonObject object = new JsonParser().parse(reader).getAsJsonObject();
+                this.revision = object.has("revision") ? object.get("revision").getAsString() : null;
+                if (object.has("mods")) {
+                    for (Map.Entry<String, JsonElement> entry : object.get("mods").getAsJsonObject().entrySet()) {
+                        this.files.put(entry.getKey(), entry.getValue().getAsString());
+                    }
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public Set<String> getModNames() {
+        return files.keySet();
+    }
+
+    public File getFile(String name) {
+        final String path = this.files.get(name);
+        return path != null ? new File(this.baseDir, path) : null;
+    }
+
+    public void update(String revision, List<Mod> mods) {
+        this.revision = revision;
+        this.files.clear();
+        final Path basePath = this.baseDir.toPath().normalize();
+        for (Mod mod : mods) {
+            final Path path = mod.getFile(this.instance).getAbsoluteFile().toPath().normalize();
+            this.files.put(mod.getName(), basePath.relativize(path).toString());
+        }
+    }
+
+    public void save() {
+        final JsonObject object = new JsonObject();
+        if (this.revision != null) {
+            object.addProperty("revision", this.revision);
+        }
+        final JsonObject mods = new JsonObject();
+        for (Map.Entry<String, String> entry : this.files.entrySet()) {
+            mods.addProperty(entry.getKey(), entry.getValue());
+        }
+        object.add("mods", mods);
+        try {
+            FileUtils.writeStringToFile(this.file, new GsonBuilder().setPrettyPrinting().create().toJson(object), Charsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.mcmoddev.launcher.mod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Manifest implements IManifestHandler {
+    private String revision;
+    private final List<Mod> mods = new ArrayList<>();
+    private final Map<String, ManifestDelta> deltas = new LinkedHashMap<>();
+
+    @Override
+    public void onRevision(String revision) {
+        this.revision = revision;
+    }
+
+    @Override
+    public void onMod(Mod mod) {
+        this.mods.add(mod);
+    }
+
+    @Override
+    public void onDelta(ManifestDelta delta) {
+        this.deltas.put(delta.getBase(), delta);
+    }
+
+    public void replay(IManifestHandler handler) {
+        if (this.revision != null) {
+            handler.onRevision(this.revision);
+        }
+        this.deltas.values().forEach(handler::onDelta);
+        this.mods.forEach(handler::onMod);
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public List<Mod> getMods() {
+        return new ArrayList<>(mods);
+    }
+
+    public Collection<ManifestDelta> getDeltas() {
+        return deltas.values();
+    }
+}
@@ -0,0 +1,42 @@
+package com.mcmoddev.launcher.mod;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ManifestDelta {
+    private final String base;
+    private final List<Mod> added;
+    private final List<Mod> changed;
+    private final List<String> removed;
+    private final Set<String> names = new HashSet<>();
+
+    public ManifestDelta(String base, List<Mod> added, List<Mod> changed, List<String> removed) {
+        this.base = base;
+        this.added = added;
+        this.changed = changed;
+        this.removed = removed;
+        added.forEach(mod -> this.names.add(mod.getName()));
+        changed.forEach(mod -> this.names.add(mod.getName()));
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public List<Mod> getAdded() {
+        return added;
+    }
+
+    public List<Mod> getChanged() {
+        return changed;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    public boolean contains(String name) {
+        return this.names.contains(name);
+    }
+}
@@ -0,0 +1,178 @@
+package com.mcmoddev.launcher.mod;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class ManifestParser {
+    public static void parse(Reader reader, IManifestHandler handler) throws IOException {
+        final JsonReader in = new JsonReader(reader);
+        final Map<String, JsonElement> undecided = new LinkedHashMap<>();
+        final List<Mod> bufferedMods = new ArrayList<>();
+        boolean revisioned = false;
+        boolean plain = false;
+        boolean deltasRead = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            final String name = in.nextName();
+            final JsonToken token = in.peek();
+            // Revisioned manifests are recognised by their keys, which may come in any order
+            if (!plain && name.equals("revision") && (token == JsonToken.STRING || token == JsonToken.NUMBER)) {
+                revisioned = true;
+                handler.onRevision(in.nextString());
+            } else if (!plain && name.equals("deltas") && token == JsonToken.BEGIN_OBJECT) {
+                revisioned = true;
+                in.beginObject();
+                while (in.hasNext()) {
+                    handler.onDelta(ManifestParser.readDelta(in.nextName(), in));
+                }
+                in.endObject();
+                deltasRead = true;
+                // Deltas decide how each mod is verified, so mods read before them are only handed out now
+                bufferedMods.forEach(handler::onMod);
+                bufferedMods.clear();
+            } else if (!plain && name.equals("mods") && token == JsonToken.BEGIN_OBJECT) {
+                revisioned = true;
+                ManifestParser.readMods(in, deltasRead ? handler : bufferedMods::add);
+            } else if (revisioned) {
+                in.skipValue();
+            } else if (plain) {
+                handler.onMod(ManifestParser.readMod(name, in));
+            } else {
+                final JsonElement element = new JsonParser().parse(in);
+                undecided.put(name, element);
+                if (element.isJsonObject() && element.getAsJsonObject().has("file")) {
+                    plain = true;
+                    ManifestParser.readMods(undecided, handler);
+                    undecided.clear();
+                }
+            }
+        }
+        in.endObject();
+        bufferedMods.forEach(handler::onMod);
+        if (!revisioned) {
+            ManifestParser.readMods(undecided, handler);
+        }
+    }
+
+    private static void readMods(Map<String, JsonElement> mods, IManifestHandler handler) throws IOException {
+        for (Map.Entry<String, JsonElement> entry : mods.entrySet()) {
+            handler.onMod(ManifestParser.readMod(entry.getKey(), new JsonReader(new StringReader(entry.getValue().toString()))));
+        }
+    }
+
+    public static ManifestDelta readDelta(String base, JsonReader in) throws IOException {
+        final List<Mod> added = new ArrayList<>();
+        final List<Mod> changed = new ArrayList<>();
+        final List<String> removed = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            final String key = in.nextName();
+            if (key.equals("added")) {
+                ManifestParser.readMods(in, added::add);
+            } else if (key.equals("changed")) {
+                ManifestParser.readMods(in, changed::add);
+            } else if (key.equals("removed")) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    removed.add(in.nextString());
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new ManifestDelta(base, added, changed, removed);
+    }
+
+    private static void readMods(JsonReader in, IManifestHandler handler) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            handler.onMod(ManifestParser.readMod(in.nextName(), in));
+        }
+        in.endObject();
+    }
+
+    public static Mod readMod(String name, JsonReader in) throws IOException {
+        String fileName = null;
+        String url = null;
+        String sha256 = null;
+        ModType modType = ModType.MOD;
+        ModConfig[] configs = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            final String key = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (key) {
+                case "file":
+                    fileName = in.nextString();
+                    break;
+                case "url":
+                    url = in.nextString();
+                    break;
+                case "sha256":
+                    sha256 = in.nextString().toLowerCase(Locale.ENGLISH);
+                    break;
+                case "type":
+                    modType = ModType.valueOf(in.nextString().toUpperCase(Locale.ENGLISH));
+                    break;
+                case "config":
+                    configs = ManifestParser.readConfigs(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        if (fileName == null) {
+            throw new IOException("Mod " + name + " has no file");
+        }
+        return new Mod(name, fileName, url, sha256, modType, configs);
+    }
+
+    private static ModConfig[] readConfigs(JsonReader in) throws IOException {
+        final List<ModConfig> configs = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            String file = null;
+            String url = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                final String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (key.equals("file")) {
+                    file = in.nextString();
+                } else if (key.equals("url")) {
+                    url = in.nextString();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            if (file == null || url == null) {
+                throw new IOException("Mod config entries need both a file and a url");
+            }
+            configs.add(new ModConfig(file, url));
+        }
+        in.endArray();
+        return configs.toArray(new ModConfig[0]);
+    }
+}
@@ -1,9 +1,9 @@
 package com.mcmoddev.launcher.mod;
 
-import com.google.common.hash.Hashing;
-import com.google.common.io.Files;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.mcmoddev.launcher.Launcher;
+import com.mcmoddev.launcher.instance.Instance;
 
 import java.io.File;
 import java.io.IOException;
@@ -36,6 +36,16 @@ public class Mod {
         }
     }
 
+    public Mod(String name, String fileName, String url, String sha256, ModType modType, ModConfig[] configs) {
+        this.name = name;
+        this.fileName = fileName;
+        this.url = url;
+        this.sha256 = sha256;
+        this.modType = modType;
+        this.hasConfig = configs != null;
+        this.configs = configs;
+    }
+
     public String getName() {
         return name;
     }
@@ -56,6 +66,10 @@ public class Mod {
         return modType;
     }
 
+    public File getFile(Instance instance) {
+        return new File(this.modType.getFile(instance), this.fileName);
+    }
+
     public boolean hasConfig() {
         return hasConfig;
     }
@@ -71,7 +85,7 @@ public class Mod {
             return true;
         } else {
             try {
-                final String obtained_sha256 = Files.asByteSource(file).hash(Hashing.sha256()).toString();
+                final String obtained_sha256 = Launcher.INSTANCE.hashIndex.getSHA256(file);
                 return this.getSHA256() != null && !this.getSHA256().equals(obtained_sha256);
             } catch (IOException e) {
                 e.printStackTrace();
@@ -11,6 +11,11 @@ public class ModConfig {
         this.url = object.get("url").getAsString();
     }
 
+    public ModConfig(String file, String url) {
+        this.file = file;
+        this.url = url;
+    }
+
     public String getFile() {
         return file;
     }
@@ -2,20 +2,21 @@ package com.mcmoddev.launcher.mod;
 
 import java.io.File;
 
-import com.mcmoddev.launcher.Launcher;
+import com.mcmoddev.launcher.instance.Instance;
 
 public enum ModType {
-    MOD(Launcher.INSTANCE.modsDir),
-    COREMOD(Launcher.INSTANCE.coreModsDir),
-    ROOT(Launcher.INSTANCE.dataDir);
+    MOD,
+    COREMOD,
+    ROOT;
 
-    private File file;
-
-    ModType(File file) {
-        this.file = file;
-    }
-
-    public File getFile() {
-        return file;
+    public File getFile(Instance instance) {
+        switch (this) {
+            case MOD:
+                return instance.getModsDir();
+            case COREMOD:
+                return instance.getCoreModsDir();
+            default:
+                return instance.getDir();
+        }
     }
 }
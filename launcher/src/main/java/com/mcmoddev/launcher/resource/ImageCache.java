@@ -0,0 +1,48 @@
+package com.mcmoddev.launcher.resource;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+public class ImageCache<T> {
+    private final long maxSize;
+    private final ToLongFunction<T> weigher;
+    private final LinkedHashMap<String, T> entries = new LinkedHashMap<>(16, 0.75F, true);
+    private long size;
+
+    public ImageCache(long maxSize, ToLongFunction<T> weigher) {
+        this.maxSize = maxSize;
+        this.weigher = weigher;
+    }
+
+    public synchronized T get(String key) {
+        return this.entries.get(key);
+    }
+
+    public synchronized boolean containsKey(String key) {
+        return this.entries.containsKey(key);
+    }
+
+    public synchronized void put(String key, T value) {
+        final T previous = this.entries.put(key, value);
+        if (previous != null) {
+            this.size -= this.weigher.applyAsLong(previous);
+        }
+        this.size += this.weigher.applyAsLong(value);
+
+        final Iterator<Map.Entry<String, T>> iterator = this.entries.entrySet().iterator();
+        while (this.size > this.maxSize && iterator.hasNext()) {
+            final Map.Entry<String, T> entry = iterator.next();
+            if (entry.getValue() == value) {
+                continue;
+            }
+            this.size -= this.weigher.applyAsLong(entry.getValue());
+            iterator.remove();
+        }
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+}
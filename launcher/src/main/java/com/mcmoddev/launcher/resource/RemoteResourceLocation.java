@@ -1,13 +1,24 @@
 package com.mcmoddev.launcher.resource;
 
-import org.apache.commons.io.IOUtils;
-
 import java.io.*;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
 
 public class RemoteResourceLocation extends ResourceLocation {
+    public static final long CACHE_TTL = TimeUnit.DAYS.toMillis(1);
+    public static final long MAX_CACHE_SIZE = 32L * 1024 * 1024;
+    public static final int TIMEOUT = 10000;
+
     protected String urlString;
     protected URL url;
+    protected File staleFile;
+    protected boolean revalidated;
+    protected boolean usedStale;
 
     public RemoteResourceLocation(String location, String url) {
         super(location);
@@ -24,7 +35,27 @@ public class RemoteResourceLocation extends ResourceLocation {
         if (this.url == null) {
             this.url = new URL(this.urlString);
         }
-        return this.url.openStream();
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) this.url.openConnection();
+            connection.setConnectTimeout(RemoteResourceLocation.TIMEOUT);
+            connection.setReadTimeout(RemoteResourceLocation.TIMEOUT);
+            if (this.staleFile != null) {
+                connection.setIfModifiedSince(this.staleFile.lastModified());
+            }
+            if (this.staleFile != null && connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                connection.disconnect();
+                this.revalidated = true;
+                return new FileInputStream(this.staleFile);
+            }
+            return connection.getInputStream();
+        } catch (IOException e) {
+            if (this.staleFile == null) {
+                throw e;
+            }
+            System.out.println("Failed to revalidate " + this.getLocation() + " (" + e + "), using cached copy");
+            this.usedStale = true;
+            return new FileInputStream(this.staleFile);
+        }
     }
 
     @Override
@@ -33,7 +64,10 @@ public class RemoteResourceLocation extends ResourceLocation {
         if (assetsDir.exists()) {
             final File resource = new File(assetsDir, this.getLocation());
             if (resource.exists()) {
-                return new FileInputStream(resource);
+                if (System.currentTimeMillis() - resource.lastModified() < RemoteResourceLocation.CACHE_TTL) {
+                    return new FileInputStream(resource);
+                }
+                this.staleFile = resource;
             }
         }
         return null;
@@ -42,10 +76,39 @@ public class RemoteResourceLocation extends ResourceLocation {
     @Override
     public void cacheResource(InputStream stream, File cacheDir) throws IOException {
         final File assetsDir = new File(cacheDir, "assets" + File.separator + "launcher");
+        final File resource = new File(assetsDir, this.getLocation());
+        if (this.revalidated) {
+            resource.setLastModified(System.currentTimeMillis());
+            return;
+        }
+        if (this.usedStale) {
+            return;
+        }
         if (assetsDir.exists() || assetsDir.mkdirs()) {
-            final OutputStream output = new FileOutputStream(new File(assetsDir, this.getLocation()));
-            IOUtils.copy(stream, output);
-            output.close();
+            final File tempFile = new File(assetsDir, this.getLocation() + ".tmp");
+            Files.copy(stream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile.toPath(), resource.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.trimCache(assetsDir, resource);
+        }
+    }
+
+    protected void trimCache(File assetsDir, File keep) {
+        final File[] files = assetsDir.listFiles(File::isFile);
+        if (files == null) {
+            return;
+        }
+        long size = Arrays.stream(files).mapToLong(File::length).sum();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (size <= RemoteResourceLocation.MAX_CACHE_SIZE) {
+                break;
+            }
+            if (!file.equals(keep)) {
+                final long length = file.length();
+                if (file.delete()) {
+                    size -= length;
+                }
+            }
         }
     }
 }
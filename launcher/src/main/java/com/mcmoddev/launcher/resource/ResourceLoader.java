@@ -1,49 +1,205 @@
 package com.mcmoddev.launcher.resource;
 
+import org.apache.commons.io.IOUtils;
+
 import javax.imageio.ImageIO;
 import javax.swing.*;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ResourceLoader {
+    public static final long MEMORY_CACHE_SIZE = 64L * 1024 * 1024;
+
     private File cacheDir;
-    private final Map<String, BufferedImage> imageMap = new HashMap<>();
-    private final Map<String, ImageIcon> iconMap = new HashMap<>();
+    private final ImageCache<BufferedImage> imageMap = new ImageCache<>(ResourceLoader.MEMORY_CACHE_SIZE, image -> (long) image.getWidth() * image.getHeight() * 4);
+    private final ImageCache<ImageIcon> iconMap = new ImageCache<>(ResourceLoader.MEMORY_CACHE_SIZE, icon -> (long) icon.getIconWidth() * icon.getIconHeight() * 4);
+    private final Map<String, CompletableFuture<BufferedImage>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<ImageIcon>> iconsInFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        final Thread thread = new Thread(runnable, "Resource Loader");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public ResourceLoader(File cacheDir) {
         this.cacheDir = cacheDir;
     }
 
     public BufferedImage loadImage(ResourceLocation location) {
-        if (!this.imageMap.containsKey(location.getLocation())) {
+        return this.load(location, Runnable::run).join();
+    }
+
+    public CompletableFuture<BufferedImage> loadImageAsync(ResourceLocation location) {
+        return this.load(location, this.executor);
+    }
+
+    private CompletableFuture<BufferedImage> load(ResourceLocation location, Executor executor) {
+        final String key = location.getLocation();
+        final BufferedImage cached = this.imageMap.get(key);
+        if (cached != null) {
+            this.hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        final CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+        final CompletableFuture<BufferedImage> inFlight = this.inFlight.putIfAbsent(key, future);
+        if (inFlight != null) {
+            this.shared.increment();
+            return inFlight;
+        }
+        // A load may have finished between the cache miss above and claiming the key
+        final BufferedImage loaded = this.imageMap.get(key);
+        if (loaded != null) {
+            this.inFlight.remove(key, future);
+            future.complete(loaded);
+            this.hits.increment();
+            return future;
+        }
+        this.misses.increment();
+        executor.execute(() -> {
+            final long start = System.nanoTime();
             try {
-                InputStream stream = location.checkCache(this.cacheDir);
-                if (stream == null) {
-                    stream = location.getInputStream();
-                    location.cacheResource(stream, this.cacheDir);
+                future.complete(this.readImage(location));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                this.loadTime.add(System.nanoTime() - start);
+                this.inFlight.remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    private BufferedImage readImage(ResourceLocation location) {
+        try {
+            final BufferedImage image;
+            final InputStream stream = location.checkCache(this.cacheDir);
+            if (stream == null) {
+                final byte[] data;
+                try (InputStream remote = location.getInputStream()) {
+                    if (remote == null) {
+                        throw new FileNotFoundException(location.getLocation());
+                    }
+                    data = IOUtils.toByteArray(remote);
+                }
+                location.cacheResource(new ByteArrayInputStream(data), this.cacheDir);
+                image = ImageIO.read(new ByteArrayInputStream(data));
+            } else {
+                try {
+                    image = ImageIO.read(stream);
+                } finally {
                     stream.close();
-                    stream = location.getInputStream();
                 }
-                final BufferedImage image = ImageIO.read(stream);
-                stream.close();
+            }
+            if (image != null) {
                 this.imageMap.put(location.getLocation(), image);
-            } catch (IOException e) {
-                e.printStackTrace();
             }
+            return image;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
         }
-        return this.imageMap.get(location.getLocation());
+    }
+
+    public BufferedImage loadScaledImage(ResourceLocation location, int width, int height) {
+        final String key = location.getLocation() + "@" + width + "x" + height;
+        BufferedImage scaled = this.imageMap.get(key);
+        if (scaled == null) {
+            final BufferedImage image = this.loadImage(location);
+            if (image == null) {
+                return null;
+            }
+            scaled = ResourceLoader.toCompatibleImage(image, width, height);
+            this.imageMap.put(key, scaled);
+        }
+        return scaled;
+    }
+
+    public static BufferedImage toCompatibleImage(BufferedImage image, int width, int height) {
+        final BufferedImage compatible;
+        if (GraphicsEnvironment.isHeadless()) {
+            compatible = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        } else {
+            final GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            compatible = configuration.createCompatibleImage(width, height, image.getTransparency());
+        }
+        final Graphics2D graphics = compatible.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return compatible;
     }
 
     public ImageIcon loadIcon(ResourceLocation location) {
-        if (!this.imageMap.containsKey(location.getLocation())) {
-            final ImageIcon icon = new ImageIcon(ResourceLoader.class.getResource(location.getLocation()));
-            this.iconMap.put(location.getLocation(), icon);
+        final String key = location.getLocation();
+        ImageIcon icon = this.iconMap.get(key);
+        if (icon != null) {
+            this.hits.increment();
+            return icon;
         }
-        return this.iconMap.get(location.getLocation());
+        final CompletableFuture<ImageIcon> future = new CompletableFuture<>();
+        final CompletableFuture<ImageIcon> inFlight = this.iconsInFlight.putIfAbsent(key, future);
+        if (inFlight != null) {
+            this.shared.increment();
+            return inFlight.join();
+        }
+        try {
+            icon = this.iconMap.get(key);
+            if (icon == null) {
+                this.misses.increment();
+                icon = new ImageIcon(ResourceLoader.class.getResource(key));
+                this.iconMap.put(key, icon);
+            } else {
+                this.hits.increment();
+            }
+            future.complete(icon);
+            return icon;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.iconsInFlight.remove(key, future);
+        }
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    public long getSharedCount() {
+        return this.shared.sum();
+    }
+
+    public long getLoadTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.loadTime.sum());
+    }
+
+    public String getStatistics() {
+        return "hits=" + this.getHitCount() + ", misses=" + this.getMissCount() + ", shared=" + this.getSharedCount() + ", loadTime=" + this.getLoadTime() + "ms, memory=" + (this.imageMap.getSize() + this.iconMap.getSize()) / 1024 + "KB";
     }
 
     public InputStream loadStream(ResourceLocation location) {
@@ -3,14 +3,19 @@ package com.mcmoddev.launcher.ui;
 import com.google.gson.JsonElement;
 import com.mcmoddev.launcher.Launcher;
 import com.mcmoddev.launcher.resource.RemoteResourceLocation;
+import com.mcmoddev.launcher.resource.ResourceLoader;
 import com.mcmoddev.launcher.resource.ResourceLocation;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class LauncherPanel extends JPanel {
 
@@ -23,10 +28,19 @@ public class LauncherPanel extends JPanel {
     public static final Color GREEN = new Color(82, 191, 94);
     public static final Color RED = new Color(255, 84, 84);
 
-    public int currentProgress;
-    public int taskCount = -1;
-    public int currentTask;
-    public String currentTaskName;
+    public static final Rectangle TASK_BOUNDS = new Rectangle(0, 0, 854, 46);
+    public static final Rectangle PROGRESS_BOUNDS = new Rectangle(0, 36, 854, 10);
+    public static final Rectangle AVATAR_BOUNDS = new Rectangle(524, 368, 70, 70);
+    public static final int FRAME_RATE = 30;
+
+    private volatile int currentProgress;
+    private volatile int taskCount = -1;
+    private volatile int currentTask;
+    private volatile String currentTaskName;
+
+    private final AtomicInteger avatarRequest = new AtomicInteger();
+    private final Rectangle dirty = new Rectangle();
+    private final Timer repaintTimer = new Timer(1000 / LauncherPanel.FRAME_RATE, e -> this.flushRepaint());
 
     public BufferedImage banner;
     public BufferedImage avatar;
@@ -39,7 +53,8 @@ public class LauncherPanel extends JPanel {
         super(true);
         this.setLayout(null);
 
-        this.banner = Launcher.INSTANCE.resourceLoader.loadImage(LauncherPanel.BANNER);
+        final BufferedImage banner = Launcher.INSTANCE.resourceLoader.loadImage(LauncherPanel.BANNER);
+        this.banner = Launcher.INSTANCE.resourceLoader.loadScaledImage(LauncherPanel.BANNER, Math.max(854, banner.getWidth()), Math.max(358, banner.getHeight()));
         if (Launcher.INSTANCE.isCached) {
             final Map.Entry<String, JsonElement> entry = new ArrayList<>(Launcher.INSTANCE.cache.entrySet()).get(0);
             final String obtained_username = entry.getValue().getAsJsonObject().get("selectedProfile").getAsJsonObject().get("name").getAsString();
@@ -80,15 +95,15 @@ public class LauncherPanel extends JPanel {
                             LauncherPanel.this.username.setEnabled(true);
                             LauncherPanel.this.password.setEnabled(true);
                             LauncherPanel.this.password.setText("");
-                            LauncherPanel.this.currentProgress = 0;
-                            LauncherPanel.this.currentTask = 0;
-                            LauncherPanel.this.taskCount = -1;
+                            LauncherPanel.this.setCurrentProgress(0);
+                            LauncherPanel.this.setCurrentTask(0);
+                            LauncherPanel.this.setTaskCount(-1);
                             return null;
                         } else {
                             return LauncherPanel.this.password.getText();
                         }
                     }, progress -> {
-                        LauncherPanel.this.currentProgress = progress;
+                        LauncherPanel.this.setCurrentProgress(progress);
                         if (progress == 100) {
                             Launcher.INSTANCE.frame.setVisible(false);
                         }
@@ -101,22 +116,140 @@ public class LauncherPanel extends JPanel {
         this.add(this.play);
 
         this.password.addActionListener(e -> this.play.doClick());
+
+        final DocumentListener documentListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                LauncherPanel.this.updatePlayButton();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                LauncherPanel.this.updatePlayButton();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                LauncherPanel.this.updatePlayButton();
+            }
+        };
+        this.username.getDocument().addDocumentListener(documentListener);
+        this.password.getDocument().addDocumentListener(documentListener);
+        this.username.addPropertyChangeListener("enabled", e -> this.updatePlayButton());
+        this.password.addPropertyChangeListener("enabled", e -> this.updatePlayButton());
+        this.updatePlayButton();
+
+        this.repaintTimer.setCoalesce(true);
     }
 
     public void loadAvatar(String username) {
-        this.avatar = Launcher.INSTANCE.resourceLoader.loadImage(new RemoteResourceLocation(username + ".png", "https://minotar.net/helm/" + username + "/70.png"));
+        final int request = this.avatarRequest.incrementAndGet();
+        Launcher.INSTANCE.resourceLoader.loadImageAsync(new RemoteResourceLocation(username + ".png", "https://minotar.net/helm/" + username + "/70.png")).thenAccept(avatar -> {
+            final BufferedImage compatible = avatar != null ? ResourceLoader.toCompatibleImage(avatar, avatar.getWidth(), avatar.getHeight()) : null;
+            SwingUtilities.invokeLater(() -> {
+                if (request == this.avatarRequest.get()) {
+                    this.avatar = compatible;
+                    this.markDirty(LauncherPanel.AVATAR_BOUNDS);
+                }
+            });
+        });
+    }
+
+    public int getCurrentProgress() {
+        return currentProgress;
+    }
+
+    public void setCurrentProgress(int currentProgress) {
+        if (this.currentProgress != currentProgress) {
+            this.currentProgress = currentProgress;
+            if (this.taskCount >= 0) {
+                this.markDirty(LauncherPanel.PROGRESS_BOUNDS);
+            }
+        }
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(int taskCount) {
+        if (this.taskCount != taskCount) {
+            final boolean visible = this.taskCount >= 0;
+            this.taskCount = taskCount;
+            if (visible != taskCount >= 0) {
+                SwingUtilities.invokeLater(() -> {
+                    if (Launcher.INSTANCE.frame != null) {
+                        Launcher.INSTANCE.frame.setHeaderHeight(this.taskCount >= 0 ? 68 : 32);
+                    }
+                });
+            }
+            this.markDirty(LauncherPanel.TASK_BOUNDS);
+        }
+    }
+
+    public int getCurrentTask() {
+        return currentTask;
+    }
+
+    public void setCurrentTask(int currentTask) {
+        if (this.currentTask != currentTask) {
+            this.currentTask = currentTask;
+            if (this.taskCount >= 0) {
+                this.markDirty(LauncherPanel.TASK_BOUNDS);
+            }
+        }
+    }
+
+    public String getCurrentTaskName() {
+        return currentTaskName;
+    }
+
+    public void setCurrentTaskName(String currentTaskName) {
+        if (!Objects.equals(this.currentTaskName, currentTaskName)) {
+            this.currentTaskName = currentTaskName;
+            if (this.taskCount >= 0) {
+                this.markDirty(LauncherPanel.TASK_BOUNDS);
+            }
+        }
+    }
+
+    public void markDirty(Rectangle bounds) {
+        synchronized (this.dirty) {
+            if (this.dirty.isEmpty()) {
+                this.dirty.setBounds(bounds);
+            } else {
+                this.dirty.add(bounds);
+            }
+        }
+        if (!this.repaintTimer.isRunning()) {
+            this.repaintTimer.start();
+        }
+    }
+
+    private void flushRepaint() {
+        final Rectangle bounds;
+        synchronized (this.dirty) {
+            if (this.dirty.isEmpty()) {
+                this.repaintTimer.stop();
+                return;
+            }
+            bounds = new Rectangle(this.dirty);
+            this.dirty.setSize(0, 0);
+        }
+        this.repaint(bounds);
+    }
+
+    private void updatePlayButton() {
+        this.play.setEnabled(this.username.isEnabled() && this.password.isEnabled() && !this.username.getText().isEmpty() && !this.password.getText().isEmpty());
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        this.play.setEnabled(this.username.isEnabled() && this.password.isEnabled() && !this.username.getText().isEmpty() && !this.password.getText().isEmpty());
-        Launcher.INSTANCE.frame.setHeaderHeight(this.taskCount >= 0 ? 68 : 32);
-
         ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_GASP);
 
-        g.drawImage(this.banner, 0, 0, Math.max(854, this.banner.getWidth()), Math.max(358, this.banner.getHeight()), null);
+        g.drawImage(this.banner, 0, 0, null);
 
         g.setColor(Color.DARK_GRAY);
         g.fillRect(0, 358, 854, 90);
@@ -140,8 +273,9 @@ public class LauncherPanel extends JPanel {
 
         if (this.avatar != null) {
             g.drawImage(this.avatar, 524, 368, null);
+        } else {
+            g.setColor(Color.GRAY);
+            g.fillRect(LauncherPanel.AVATAR_BOUNDS.x, LauncherPanel.AVATAR_BOUNDS.y, LauncherPanel.AVATAR_BOUNDS.width, LauncherPanel.AVATAR_BOUNDS.height);
         }
-
-        this.repaint();
     }
 }